@@ -0,0 +1,154 @@
+package com.pksa.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.Order;
+import com.pksa.order_service.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic data and in-memory stand-ins shared by the benchmarks. Everything is seeded
+ * deterministically so runs on different commits see the same rows.
+ */
+final class BenchmarkFixtures {
+    static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] STATUSES = {"NEW", "SHIPPED", "DELIVERED"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /** {@code count} report rows, newest first; row i has id {@code count - i}. */
+    static List<OrderDto> reportRows(int count) {
+        List<OrderDto> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new OrderDto(count - i, 1 + i % 500, 1 + i % 20_000, 1 + i % 5,
+                    BASE_DATE.minusSeconds(i), STATUSES[i % STATUSES.length], 9.99 + i % 100));
+        }
+        return rows;
+    }
+
+    /** {@code count} entities in insertion order, as {@code findByOrderDateBetween} returned them. */
+    static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(new Order(i + 1, 1 + i % 500, 1 + i % 20_000, 1 + i % 5,
+                    BASE_DATE.minusSeconds((i * 7919L) % count), STATUSES[i % STATUSES.length], 9.99 + i % 100));
+        }
+        return orders;
+    }
+
+    static AdminReportService reportService(List<OrderDto> rows) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        AdminReportService service = new AdminReportService(reportRepository(rows), noopTransactionManager(), objectMapper,
+                ObservationRegistry.NOOP, new SimpleMeterRegistry(), emptyArchive());
+        ReflectionTestUtils.setField(service, "chunkSize", 1000);
+        ReflectionTestUtils.setField(service, "excelRowWindow", 100);
+        ReflectionTestUtils.setField(service, "maxRows", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(service, "pdfFlushRows", 100);
+        ReflectionTestUtils.setField(service, "renderWorkers", 3);
+        service.startRenderWorkers();
+        return service;
+    }
+
+    /** An archive with no segments; never started, so it touches neither disk nor database. */
+    static OrderArchiveService emptyArchive() {
+        return new OrderArchiveService(null, null, false, Path.of(System.getProperty("java.io.tmpdir")),
+                Duration.ofDays(365), 50_000, Duration.ofHours(6));
+    }
+
+    /** A disabled journal, so placements go straight to the repository. */
+    static OrderJournalService disabledJournal() {
+        return new OrderJournalService(null, null, null, new SimpleMeterRegistry(), false,
+                Path.of(System.getProperty("java.io.tmpdir")), DataSize.ofMegabytes(64), 1000, 50_000, 20);
+    }
+
+    /** Placement never reads history, so the benchmark keeps the cache out of the picture. */
+    static OrderHistoryCacheService disabledHistoryCache() {
+        return new OrderHistoryCacheService(null, false, 0, Duration.ZERO, false);
+    }
+
+    /** Answers the report queries from {@code rows}, which must come from {@link #reportRows}. */
+    static OrderRepository reportRepository(List<OrderDto> rows) {
+        return repository((method, args) -> switch (method) {
+            case "findReportRows" -> rows;
+            case "countReportRows" -> (long) rows.size();
+            case "streamReportRows" -> rows.stream().limit(((Limit) args[4]).max());
+            case "findReportChunk" -> {
+                // Ids descend with position, so the keyset (afterDate, afterId) maps to an index
+                int afterId = (Integer) args[5];
+                int from = afterId == Integer.MAX_VALUE ? 0 : rows.size() - afterId + 1;
+                int to = Math.min(rows.size(), from + ((Pageable) args[6]).getPageSize());
+                yield from >= to ? List.of() : rows.subList(from, to);
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /** Assigns ids like a sequence would and keeps nothing, so long throughput runs do not grow the heap. */
+    static OrderRepository inMemoryRepository() {
+        AtomicInteger ids = new AtomicInteger();
+        return repository((method, args) -> switch (method) {
+            case "save" -> {
+                Order order = (Order) args[0];
+                if (order.getId() == null) {
+                    order.setId(ids.incrementAndGet());
+                }
+                yield order;
+            }
+            case "count" -> (long) ids.get();
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    static PlatformTransactionManager noopTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private static OrderRepository repository(RepositoryMethods methods) {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[] {OrderRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemoryOrderRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> methods.invoke(method.getName(), args);
+                });
+    }
+
+    @FunctionalInterface
+    private interface RepositoryMethods {
+        Object invoke(String method, Object[] args);
+    }
+}
@@ -0,0 +1,104 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.support.BoundedDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall time for a burst of blocking requests under each execution mode. A request blocks for
+ * {@code lookupMillis}, standing in for the product lookup's {@code block()}, then holds a
+ * connection from a {@link BoundedDataSource} for {@code queryMillis}. Platform mode runs requests
+ * on a pool the size of Tomcat's default 200 threads; virtual mode starts one virtual thread per
+ * request, as Tomcat does with {@code spring.threads.virtual.enabled}. A mode sustains a burst size
+ * while its time stays near {@code lookupMillis} plus the connection queue; past that it grows in
+ * steps of {@code lookupMillis}. Virtual mode needs a Java 21 runtime and fails its trials on 17.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingConcurrencyBenchmark {
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"200", "1000", "5000"})
+    private int requests;
+
+    @Param("100")
+    private int lookupMillis;
+
+    @Param("2")
+    private int queryMillis;
+
+    @Param("10")
+    private int connections;
+
+    private Executor executor;
+    private DataSource dataSource;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? new VirtualThreadTaskExecutor("request-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS, new CustomizableThreadFactory("request-"));
+        dataSource = new BoundedDataSource(idleDataSource(), connections, Duration.ofMinutes(10));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    handle();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handle() {
+        try {
+            Thread.sleep(lookupMillis);
+            try (Connection connection = dataSource.getConnection()) {
+                Thread.sleep(queryMillis);
+            }
+        } catch (InterruptedException | SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Connections that do nothing, so only the wait for a permit is measured
+    private static DataSource idleDataSource() {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> null);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] {DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+}
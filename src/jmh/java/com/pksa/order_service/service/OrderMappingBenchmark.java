@@ -0,0 +1,49 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping, and the in-memory filter/sort/map that report generation did before
+ * rows were filtered and projected in SQL, kept as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private List<Order> orders;
+    // Non-final so the JIT cannot fold the filters away
+    private String status = "SHIPPED";
+    private Integer customerId = null;
+
+    @Setup
+    public void setUp() {
+        orders = BenchmarkFixtures.orders(rows);
+    }
+
+    @Benchmark
+    public List<OrderDto> toDto() {
+        return orders.stream().map(OrderService::toDto).toList();
+    }
+
+    @Benchmark
+    public List<OrderDto> filterSortMapInMemory() {
+        return orders.stream()
+                .filter(order -> status == null || order.getStatus().equals(status))
+                .filter(order -> customerId == null || order.getCustomerId().equals(customerId))
+                .sorted((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()))
+                .map(OrderService::toDto)
+                .toList();
+    }
+}
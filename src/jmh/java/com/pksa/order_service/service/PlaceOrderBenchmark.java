@@ -0,0 +1,72 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.CreateOrderDto;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.ProductDto;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code OrderService.placeOrder} with the product lookup stubbed and an in-memory repository,
+ * so the figure is the service's own overhead per order.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlaceOrderBenchmark {
+    private OrderService orderService;
+    private CreateOrderDto request;
+
+    @Setup
+    public void setUp() {
+        ProductDto product = new ProductDto();
+        product.setId(42);
+        product.setName("Benchmark product");
+        product.setPrice(19.99);
+
+        orderService = new OrderService(
+                BenchmarkFixtures.inMemoryRepository(),
+                event -> { },
+                new StubProductCatalog(product),
+                new TransactionTemplate(BenchmarkFixtures.noopTransactionManager()),
+                ObservationRegistry.NOOP,
+                BenchmarkFixtures.emptyArchive(),
+                BenchmarkFixtures.disabledJournal(),
+                BenchmarkFixtures.disabledHistoryCache());
+
+        request = new CreateOrderDto();
+        request.setProductId(42);
+        request.setCustomerId(7);
+        request.setQuantity(3);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public OrderDto placeOrder() {
+        return orderService.placeOrder(request);
+    }
+
+    private static final class StubProductCatalog extends ProductCatalogClient {
+        private final CompletableFuture<ProductDto> product;
+
+        StubProductCatalog(ProductDto product) {
+            super(WebClient.builder(), "http://localhost:0", Duration.ofMinutes(5), Duration.ZERO, 1.0, 1,
+                    Duration.ofSeconds(1), 5, Duration.ofSeconds(30));
+            this.product = CompletableFuture.completedFuture(product);
+        }
+
+        @Override
+        public CompletableFuture<ProductDto> getProductAsync(int productId) {
+            return product;
+        }
+    }
+}
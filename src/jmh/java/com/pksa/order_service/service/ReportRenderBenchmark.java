@@ -0,0 +1,73 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.AdminReportRequest;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per report for each renderer over synthetic rows, with the repository answered from memory
+ * so only rendering is measured. Run with {@code -prof gc} for allocation rate; the peak heap of
+ * each iteration is printed after it. The list-based EXCEL and PDF renderers hold the whole
+ * document in memory; at 1M rows they need more heap than the default fork gets, so select
+ * combinations with {@code -p} and raise it with {@code -jvmArgsAppend -Xmx...} when needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ReportRenderBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"EXCEL", "PDF", "WORD", "CSV", "NDJSON"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    private AdminReportService service;
+    private AdminReportRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = BenchmarkFixtures.reportService(BenchmarkFixtures.reportRows(rows));
+        request = new AdminReportRequest();
+        request.setDuration("6_MONTHS");
+        request.setFormat(format);
+        request.setStreaming(streaming);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.stopRenderWorkers();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeakHeap() {
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeakHeap() {
+        // Sum of per-pool peaks: an upper bound on the heap in use at any one time
+        long peak = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        System.out.printf("%n  peakHeapMb=%d%n", peak / (1024 * 1024));
+    }
+
+    @Benchmark
+    public void render() throws IOException {
+        service.writeReport(request, NullOutputStream.INSTANCE);
+    }
+}
@@ -0,0 +1,328 @@
+package com.pksa.order_service.archive;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.metrics.Hashing;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An immutable file of archived orders, newest first. A small uncompressed header holds the
+ * row count, the orderDate and customerId ranges, the statuses present and a Bloom filter of
+ * customer ids, so readers can skip a segment without inflating it. Rows follow as a deflated
+ * block of fixed-layout records.
+ */
+public final class ArchiveSegment {
+    private static final int MAGIC = 0x4F534547; // "OSEG"
+    private static final short VERSION = 1;
+    private static final int BLOOM_HASHES = 3;
+    private static final int BLOOM_BITS_PER_CUSTOMER = 10;
+
+    // Presence bits for nullable columns
+    private static final int HAS_PRODUCT = 1;
+    private static final int HAS_CUSTOMER = 2;
+    private static final int HAS_QUANTITY = 4;
+    private static final int HAS_STATUS = 8;
+    private static final int HAS_PRICE = 16;
+
+    private final Path path;
+    private final int rows;
+    private final LocalDateTime minDate;
+    private final LocalDateTime maxDate;
+    private final int minCustomer;
+    private final int maxCustomer;
+    private final int statusMask;
+    private final long[] customerBloom;
+    private final long bodyOffset;
+
+    private ArchiveSegment(Path path, int rows, LocalDateTime minDate, LocalDateTime maxDate, int minCustomer,
+                           int maxCustomer, int statusMask, long[] customerBloom, long bodyOffset) {
+        this.path = path;
+        this.rows = rows;
+        this.minDate = minDate;
+        this.maxDate = maxDate;
+        this.minCustomer = minCustomer;
+        this.maxCustomer = maxCustomer;
+        this.statusMask = statusMask;
+        this.customerBloom = customerBloom;
+        this.bodyOffset = bodyOffset;
+    }
+
+    /**
+     * Writes {@code orders} to {@code path} and forces it to disk. Rows must already be sorted
+     * by orderDate then id, both descending, and every row must have an orderDate.
+     */
+    public static ArchiveSegment write(Path path, List<OrderDto> orders) throws IOException {
+        LocalDateTime minDate = null;
+        LocalDateTime maxDate = null;
+        int minCustomer = Integer.MAX_VALUE;
+        int maxCustomer = Integer.MIN_VALUE;
+        int statusMask = 0;
+        Set<Integer> customers = new HashSet<>();
+        for (OrderDto order : orders) {
+            if (minDate == null || order.getOrderDate().isBefore(minDate)) {
+                minDate = order.getOrderDate();
+            }
+            if (maxDate == null || order.getOrderDate().isAfter(maxDate)) {
+                maxDate = order.getOrderDate();
+            }
+            if (order.getCustomerId() != null) {
+                minCustomer = Math.min(minCustomer, order.getCustomerId());
+                maxCustomer = Math.max(maxCustomer, order.getCustomerId());
+                customers.add(order.getCustomerId());
+            }
+            if (order.getStatus() != null) {
+                statusMask |= 1 << OrderStatus.parse(order.getStatus()).code();
+            }
+        }
+        if (minDate == null) {
+            throw new IllegalArgumentException("A segment needs at least one order");
+        }
+
+        long[] bloom = new long[Math.max(1, (customers.size() * BLOOM_BITS_PER_CUSTOMER + 63) / 64)];
+        for (int customer : customers) {
+            addToBloom(bloom, customer);
+        }
+
+        long bodyOffset;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeShort(VERSION);
+            header.writeInt(orders.size());
+            header.writeLong(micros(minDate));
+            header.writeLong(micros(maxDate));
+            header.writeInt(minCustomer);
+            header.writeInt(maxCustomer);
+            header.writeInt(statusMask);
+            header.writeInt(bloom.length);
+            for (long word : bloom) {
+                header.writeLong(word);
+            }
+            header.flush();
+            bodyOffset = header.size();
+
+            DeflaterOutputStream deflater = new DeflaterOutputStream(file, new Deflater(Deflater.BEST_SPEED), 64 * 1024);
+            DataOutputStream body = new DataOutputStream(deflater);
+            for (OrderDto order : orders) {
+                writeRow(body, order);
+            }
+            body.flush();
+            deflater.finish();
+            file.flush();
+            channel.force(true);
+        }
+        return new ArchiveSegment(path, orders.size(), minDate, maxDate, minCustomer, maxCustomer, statusMask,
+                bloom, bodyOffset);
+    }
+
+    /** Reads only the header; rows are inflated lazily by {@link #rows}. */
+    public static ArchiveSegment open(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Not an order archive segment: " + path);
+            }
+            int rows = in.readInt();
+            LocalDateTime minDate = fromMicros(in.readLong());
+            LocalDateTime maxDate = fromMicros(in.readLong());
+            int minCustomer = in.readInt();
+            int maxCustomer = in.readInt();
+            int statusMask = in.readInt();
+            long[] bloom = new long[in.readInt()];
+            for (int i = 0; i < bloom.length; i++) {
+                bloom[i] = in.readLong();
+            }
+            long bodyOffset = 4 + 2 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 8L * bloom.length;
+            return new ArchiveSegment(path, rows, minDate, maxDate, minCustomer, maxCustomer, statusMask, bloom,
+                    bodyOffset);
+        }
+    }
+
+    /** Whether any row could match; false means the segment can be skipped entirely. Null bounds are open. */
+    public boolean mightMatch(LocalDateTime start, LocalDateTime end, String status, Integer customerId) {
+        if ((start != null && maxDate.isBefore(start)) || (end != null && minDate.isAfter(end))) {
+            return false;
+        }
+        // An unknown status filter matches nothing, as it does against the table
+        if (status != null) {
+            OrderStatus wanted = OrderStatus.find(status);
+            if (wanted == null || (statusMask & (1 << wanted.code())) == 0) {
+                return false;
+            }
+        }
+        if (customerId != null) {
+            return customerId >= minCustomer && customerId <= maxCustomer && bloomContains(customerId);
+        }
+        return true;
+    }
+
+    /**
+     * Matching rows, newest first. The stream holds the file open and must be closed. Null bounds
+     * and filters match everything.
+     */
+    public Stream<OrderDto> rows(LocalDateTime start, LocalDateTime end, String status, Integer customerId)
+            throws IOException {
+        if (status != null && OrderStatus.find(status) == null) {
+            return Stream.empty();
+        }
+        String wantedStatus = status == null ? null : OrderStatus.parse(status).name();
+        InputStream file = Files.newInputStream(path);
+        try {
+            file.skipNBytes(bodyOffset);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(file), 64 * 1024));
+
+        Iterator<OrderDto> iterator = new Iterator<>() {
+            private int remaining = rows;
+            private OrderDto next;
+            private boolean ready;
+
+            private OrderDto advance() {
+                try {
+                    while (remaining > 0) {
+                        remaining--;
+                        OrderDto order = readRow(in);
+                        // Rows are newest first, so everything after one older than start is older too
+                        if (start != null && order.getOrderDate().isBefore(start)) {
+                            remaining = 0;
+                            return null;
+                        }
+                        if ((end == null || !order.getOrderDate().isAfter(end))
+                                && (wantedStatus == null || wantedStatus.equals(order.getStatus()))
+                                && (customerId == null || customerId.equals(order.getCustomerId()))) {
+                            return order;
+                        }
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    next = advance();
+                    ready = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public OrderDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return next;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public int rowCount() {
+        return rows;
+    }
+
+    public LocalDateTime minDate() {
+        return minDate;
+    }
+
+    public LocalDateTime maxDate() {
+        return maxDate;
+    }
+
+    private boolean bloomContains(int customerId) {
+        long bits = customerBloom.length * 64L;
+        long hash = Hashing.mix64(customerId);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+            if ((customerBloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addToBloom(long[] bloom, int customerId) {
+        long bits = bloom.length * 64L;
+        long hash = Hashing.mix64(customerId);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(hash + i * (hash >>> 32), bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, OrderDto order) throws IOException {
+        int present = (order.getProductId() != null ? HAS_PRODUCT : 0)
+                | (order.getCustomerId() != null ? HAS_CUSTOMER : 0)
+                | (order.getQuantity() != null ? HAS_QUANTITY : 0)
+                | (order.getStatus() != null ? HAS_STATUS : 0)
+                | (order.getUnitPrice() != null ? HAS_PRICE : 0);
+        out.writeByte(present);
+        out.writeInt(order.getId());
+        out.writeLong(micros(order.getOrderDate()));
+        out.writeInt(order.getProductId() != null ? order.getProductId() : 0);
+        out.writeInt(order.getCustomerId() != null ? order.getCustomerId() : 0);
+        out.writeInt(order.getQuantity() != null ? order.getQuantity() : 0);
+        out.writeShort(order.getStatus() != null ? OrderStatus.parse(order.getStatus()).code() : 0);
+        out.writeDouble(order.getUnitPrice() != null ? order.getUnitPrice() : 0);
+    }
+
+    private static OrderDto readRow(DataInputStream in) throws IOException {
+        int present = in.readUnsignedByte();
+        int id = in.readInt();
+        LocalDateTime orderDate = fromMicros(in.readLong());
+        int productId = in.readInt();
+        int customerId = in.readInt();
+        int quantity = in.readInt();
+        short status = in.readShort();
+        double unitPrice = in.readDouble();
+        return new OrderDto(
+                id,
+                (present & HAS_PRODUCT) != 0 ? productId : null,
+                (present & HAS_CUSTOMER) != 0 ? customerId : null,
+                (present & HAS_QUANTITY) != 0 ? quantity : null,
+                orderDate,
+                (present & HAS_STATUS) != 0 ? OrderStatus.fromCode(status).name() : null,
+                (present & HAS_PRICE) != 0 ? unitPrice : null);
+    }
+
+    // Postgres timestamps have microsecond precision, so nothing is lost
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
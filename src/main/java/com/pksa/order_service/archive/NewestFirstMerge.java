@@ -0,0 +1,69 @@
+package com.pksa.order_service.archive;
+
+import com.pksa.order_service.dto.OrderDto;
+
+import java.util.*;
+
+/**
+ * Merges row sources that are each sorted by orderDate then id, both descending, into one
+ * sequence in the same order. While a segment is being archived its rows briefly exist both in
+ * the table and in the segment; the copies sort next to each other and only the first is kept.
+ */
+public final class NewestFirstMerge implements Iterator<OrderDto> {
+    public static final Comparator<OrderDto> NEWEST_FIRST = Comparator
+            .comparing(OrderDto::getOrderDate, Comparator.reverseOrder())
+            .thenComparing(OrderDto::getId, Comparator.reverseOrder());
+
+    private final PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> NEWEST_FIRST.compare(a.row, b.row));
+    private Integer lastId;
+
+    public NewestFirstMerge(List<? extends Iterator<OrderDto>> sources) {
+        for (Iterator<OrderDto> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        skipDuplicates();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public OrderDto next() {
+        Head head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        OrderDto row = head.row;
+        advance(head);
+        lastId = row.getId();
+        skipDuplicates();
+        return row;
+    }
+
+    private void skipDuplicates() {
+        while (!heads.isEmpty() && heads.peek().row.getId().equals(lastId)) {
+            advance(heads.poll());
+        }
+    }
+
+    private void advance(Head head) {
+        if (head.source.hasNext()) {
+            head.row = head.source.next();
+            heads.add(head);
+        }
+    }
+
+    private static final class Head {
+        OrderDto row;
+        final Iterator<OrderDto> source;
+
+        Head(OrderDto row, Iterator<OrderDto> source) {
+            this.row = row;
+            this.source = source;
+        }
+    }
+}
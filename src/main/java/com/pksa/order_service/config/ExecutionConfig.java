@@ -0,0 +1,62 @@
+package com.pksa.order_service.config;
+
+import com.pksa.order_service.support.BoundedDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread mode. With {@code spring.threads.virtual.enabled=true} on Java 21 or
+ * later, Spring Boot serves requests and runs its own executors on virtual threads, and the
+ * blocking workers created through {@link WorkerThreads} follow. On Java 17 the property has no
+ * effect and everything stays on platform threads.
+ * <p>
+ * Far more requests can then block at once than the connection pool can serve, so in that mode
+ * the DataSource is wrapped in a {@link BoundedDataSource}. It lets
+ * {@code orders.db.limit.max-concurrency} callers (the pool size unless set) hold a connection,
+ * makes the rest wait in FIFO order and fails them after {@code orders.db.limit.timeout}, well
+ * before Hikari's own 30s wait. {@code orders.db.limit.enabled} turns the limit on or off
+ * regardless of the thread mode.
+ */
+@Configuration
+public class ExecutionConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Bean
+    public WorkerThreads workerThreads(Environment environment) {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        logger.info("Blocking work runs on {} threads", virtual ? "virtual" : "platform");
+        return new WorkerThreads(virtual);
+    }
+
+    // Static so the post-processor is registered before the DataSource bean is created
+    @Bean
+    public static BeanPostProcessor connectionLimiter(Environment environment) {
+        boolean enabled = environment.getProperty("orders.db.limit.enabled", Boolean.class,
+                Threading.VIRTUAL.isActive(environment));
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int maxConcurrency = environment.getProperty("orders.db.limit.max-concurrency", Integer.class, poolSize);
+        if (enabled && (maxConcurrency < 1 || maxConcurrency > poolSize)) {
+            throw new IllegalStateException("orders.db.limit.max-concurrency (" + maxConcurrency
+                    + ") must be between 1 and the connection pool size (" + poolSize + ")");
+        }
+        Duration timeout = environment.getProperty("orders.db.limit.timeout", Duration.class, Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    logger.info("Limiting DataSource {} to {} concurrent connections", beanName, maxConcurrency);
+                    return new BoundedDataSource(dataSource, maxConcurrency, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
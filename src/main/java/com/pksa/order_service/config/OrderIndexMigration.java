@@ -0,0 +1,24 @@
+package com.pksa.order_service.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops {@code idx_orders_customer_order_date}, which {@code idx_orders_customer_order_date_id}
+ * replaced. The schema update only adds indexes, so older databases would keep maintaining both.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderIndexMigration {
+    private final JdbcTemplate jdbcTemplate;
+    // Depending on the EntityManagerFactory guarantees the schema update created the new index first
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute("drop index if exists idx_orders_customer_order_date");
+    }
+}
@@ -0,0 +1,33 @@
+package com.pksa.order_service.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves {@code orders_seq} past the highest existing order id. Rows created while ids came
+ * from the IDENTITY column would otherwise collide with the first pooled id blocks.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSequenceInitializer {
+    private final JdbcTemplate jdbcTemplate;
+    // Depending on the EntityManagerFactory guarantees the schema update created the sequence
+    private final EntityManagerFactory entityManagerFactory;
+    private final Logger logger = LoggerFactory.getLogger(OrderSequenceInitializer.class);
+
+    @PostConstruct
+    public void alignSequence() {
+        Long value = jdbcTemplate.queryForObject("""
+                select setval('orders_seq', greatest(
+                        (select coalesce(max(id), 0) from orders),
+                        (select last_value from orders_seq),
+                        1))
+                """, Long.class);
+        logger.info("orders_seq aligned at {}", value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pksa.order_service.config;
+
+import com.pksa.order_service.entity.OrderStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Converts a legacy varchar {@code orders.status} column to {@link OrderStatus} codes in place.
+ * The schema update leaves existing column types alone, so databases created before the coded
+ * column still hold names. Runs once; the ALTER rewrites the table under an exclusive lock.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusColumnMigration {
+    private final JdbcTemplate jdbcTemplate;
+    // Depending on the EntityManagerFactory guarantees the schema update has run first
+    private final EntityManagerFactory entityManagerFactory;
+    private final Logger logger = LoggerFactory.getLogger(OrderStatusColumnMigration.class);
+
+    @PostConstruct
+    public void migrate() {
+        List<String> type = jdbcTemplate.queryForList("""
+                select data_type from information_schema.columns
+                where table_schema = current_schema() and table_name = 'orders' and column_name = 'status'
+                """, String.class);
+        if (type.isEmpty() || "smallint".equals(type.get(0))) {
+            return;
+        }
+
+        String names = Arrays.stream(OrderStatus.values())
+                .map(s -> "'" + s.name() + "'")
+                .collect(Collectors.joining(", "));
+        List<String> unknown = jdbcTemplate.queryForList(
+                "select distinct status from orders where status is not null and upper(trim(status)) not in (" + names + ")",
+                String.class);
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("orders.status holds values with no OrderStatus code: " + unknown);
+        }
+
+        String cases = Arrays.stream(OrderStatus.values())
+                .map(s -> "when '" + s.name() + "' then " + s.code())
+                .collect(Collectors.joining(" "));
+        jdbcTemplate.execute("alter table orders alter column status type smallint using (case upper(trim(status)) "
+                + cases + " end)");
+        logger.info("orders.status converted from {} to smallint status codes", type.get(0));
+    }
+}
@@ -0,0 +1,37 @@
+package com.pksa.order_service.config;
+
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for background workers that spend most of their time blocked on the
+ * database, SMTP or disk. In virtual-thread mode they hand out virtual threads; otherwise named
+ * platform threads as before. CPU-bound pools such as report rendering keep platform threads.
+ */
+public class WorkerThreads {
+    private final boolean virtual;
+
+    public WorkerThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public ThreadFactory factory(String prefix) {
+        return factory(prefix, false);
+    }
+
+    // Virtual threads are always daemon threads
+    public ThreadFactory factory(String prefix, boolean daemon) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(daemon);
+        return threadFactory;
+    }
+}
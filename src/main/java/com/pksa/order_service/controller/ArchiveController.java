@@ -0,0 +1,26 @@
+package com.pksa.order_service.controller;
+
+import com.pksa.order_service.dto.ArchiveStats;
+import com.pksa.order_service.service.OrderArchiveService;
+import com.pksa.order_service.wrapper.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+    private final OrderArchiveService archiveService;
+
+    @GetMapping
+    public ApiResponse<ArchiveStats> stats() {
+        return ApiResponse.success(archiveService.stats());
+    }
+
+    // Runs archival now instead of waiting for the next scheduled run
+    @PostMapping("/run")
+    public ApiResponse<String> run() {
+        int moved = archiveService.archive();
+        return ApiResponse.success("Archived " + moved + " orders");
+    }
+}
@@ -0,0 +1,25 @@
+package com.pksa.order_service.controller;
+
+import com.pksa.order_service.dto.HistoryCacheStats;
+import com.pksa.order_service.service.OrderHistoryCacheService;
+import com.pksa.order_service.wrapper.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/history-cache")
+@RequiredArgsConstructor
+public class HistoryCacheController {
+    private final OrderHistoryCacheService historyCache;
+
+    @GetMapping("/stats")
+    public ApiResponse<HistoryCacheStats> stats() {
+        return ApiResponse.success(historyCache.stats());
+    }
+
+    @DeleteMapping
+    public ApiResponse<String> clear() {
+        historyCache.clear();
+        return ApiResponse.success("Order history cache cleared");
+    }
+}
@@ -1,24 +1,53 @@
 package com.pksa.order_service.controller;
 
 import com.pksa.order_service.dto.*;
+import com.pksa.order_service.service.AsyncOrderService;
+import com.pksa.order_service.service.OrderBatchService;
+import com.pksa.order_service.service.OrderChangeFeedService;
 import com.pksa.order_service.service.OrderService;
+import com.pksa.order_service.service.OrderStatusService;
 import com.pksa.order_service.wrapper.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/orders")
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService service;
+    private final AsyncOrderService asyncService;
+    private final OrderBatchService batchService;
+    private final OrderChangeFeedService changeFeedService;
+    private final OrderStatusService statusService;
 
     @GetMapping
     public ApiResponse<List<OrderDto>> getAll() {
         return ApiResponse.success(service.getAll());
     }
 
+    // Keyset-paginated listing; pass nextCursor back to read the following page
+    @GetMapping("/page")
+    public ApiResponse<OrderPage> getPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return ApiResponse.success(service.getPage(cursor, size));
+    }
+
+    // Incremental change feed as NDJSON; resume with the last seq received
+    @GetMapping("/changes")
+    public ResponseEntity<StreamingResponseBody> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                            @RequestParam(defaultValue = "10000") int limit) {
+        StreamingResponseBody body = out -> changeFeedService.streamChanges(since, limit, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ApiResponse<OrderDto> getById(@PathVariable int id) {
         return ApiResponse.success(service.getById(id));
@@ -29,11 +58,32 @@ public class OrderController {
         return ApiResponse.success(service.placeOrder(dto));
     }
 
+    // Non-blocking placement: the request thread is released while the product lookup and insert run
+    @PostMapping("/async")
+    public CompletableFuture<ApiResponse<OrderDto>> placeOrderAsync(@RequestBody @Valid CreateOrderDto dto) {
+        return asyncService.placeOrder(dto).thenApply(ApiResponse::success);
+    }
+
+    // Bulk ingestion: items are validated individually and results are returned per index
+    @PostMapping("/batch")
+    public ApiResponse<List<BatchOrderResult>> placeOrders(@RequestBody List<CreateOrderDto> dtos) {
+        List<BatchOrderResult> results = batchService.placeOrders(dtos);
+        long placed = results.stream().filter(BatchOrderResult::isSuccess).count();
+        return ApiResponse.success(placed + " of " + results.size() + " orders placed", results);
+    }
+
     @GetMapping("/history")
     public ApiResponse<List<OrderDto>> getOrdersByCustomer(@RequestParam int customerId) {
         return ApiResponse.success(service.getOrdersByCustomer(customerId));
     }
 
+    @GetMapping("/history/page")
+    public ApiResponse<OrderPage> getCustomerPage(@RequestParam int customerId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size) {
+        return ApiResponse.success(service.getCustomerPage(customerId, cursor, size));
+    }
+
     @DeleteMapping("/{id}")
     public ApiResponse<String> delete(@PathVariable int id) {
         service.delete(id);
@@ -44,4 +94,11 @@ public class OrderController {
     public ApiResponse<OrderDto> updateStatus(@PathVariable int id, @RequestBody String status) {
         return ApiResponse.success(service.updateStatus(id, status));
     }
+
+    // Bulk transition over explicit ids or a filter; outcomes are returned per order
+    @PutMapping("/status")
+    public ApiResponse<BulkStatusUpdateResult> updateStatuses(@RequestBody @Valid BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResult result = statusService.updateStatuses(request);
+        return ApiResponse.success(result.getUpdated() + " of " + result.getResults().size() + " orders updated", result);
+    }
 }
@@ -0,0 +1,20 @@
+package com.pksa.order_service.controller;
+
+import com.pksa.order_service.dto.OrderMetricsDto;
+import com.pksa.order_service.service.OrderMetricsService;
+import com.pksa.order_service.wrapper.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/metrics")
+@RequiredArgsConstructor
+public class OrderMetricsController {
+    private final OrderMetricsService orderMetricsService;
+
+    // Live figures from memory, e.g. /admin/metrics/orders?window=15m
+    @GetMapping("/orders")
+    public ApiResponse<OrderMetricsDto> orders(@RequestParam(defaultValue = "1m") String window) {
+        return ApiResponse.success(orderMetricsService.getMetrics(window));
+    }
+}
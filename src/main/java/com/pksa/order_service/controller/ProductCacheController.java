@@ -0,0 +1,25 @@
+package com.pksa.order_service.controller;
+
+import com.pksa.order_service.dto.ProductCacheStats;
+import com.pksa.order_service.service.ProductCatalogClient;
+import com.pksa.order_service.wrapper.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/product-cache")
+@RequiredArgsConstructor
+public class ProductCacheController {
+    private final ProductCatalogClient productCatalog;
+
+    @GetMapping("/stats")
+    public ApiResponse<ProductCacheStats> stats() {
+        return ApiResponse.success(productCatalog.stats());
+    }
+
+    @DeleteMapping
+    public ApiResponse<String> clear() {
+        productCatalog.clear();
+        return ApiResponse.success("Product cache cleared");
+    }
+}
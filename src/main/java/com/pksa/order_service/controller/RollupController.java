@@ -0,0 +1,38 @@
+package com.pksa.order_service.controller;
+
+import com.pksa.order_service.dto.OrderSummaryDto;
+import com.pksa.order_service.service.OrderRollupService;
+import com.pksa.order_service.wrapper.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/admin/rollups")
+@RequiredArgsConstructor
+public class RollupController {
+    private final OrderRollupService rollupService;
+
+    // Summary from daily rollups: either a report duration or an explicit date range
+    @GetMapping("/summary")
+    public ApiResponse<OrderSummaryDto> summary(
+            @RequestParam(required = false) String duration,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null) {
+            return ApiResponse.success(rollupService.summarize(from, to != null ? to : LocalDate.now()));
+        }
+        return ApiResponse.success(rollupService.summarize(duration != null ? duration : "1_MONTH"));
+    }
+
+    // Backfill: recompute rollups for a date range from the orders table
+    @PostMapping("/rebuild")
+    public ApiResponse<String> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int rows = rollupService.rebuild(from, to);
+        return ApiResponse.success("Rebuilt " + rows + " rollup rows");
+    }
+}
@@ -2,20 +2,39 @@ package com.pksa.order_service.controller;
 
 import com.pksa.order_service.dto.AdminReportRequest;
 import com.pksa.order_service.dto.EmailReportRequest;
+import com.pksa.order_service.dto.MailQueueStats;
+import com.pksa.order_service.dto.OrderSummaryDto;
+import com.pksa.order_service.dto.ReportCacheStats;
+import com.pksa.order_service.dto.ReportJobDto;
 import com.pksa.order_service.service.AdminReportService;
+import com.pksa.order_service.service.MailDeliveryService;
+import com.pksa.order_service.service.OrderRollupService;
 import com.pksa.order_service.service.PlainEmailService;
+import com.pksa.order_service.service.ReportCacheService;
+import com.pksa.order_service.service.ReportJobService;
 import com.pksa.order_service.wrapper.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/admin/reports")
@@ -23,12 +42,16 @@ import java.nio.file.Paths;
 public class SimpleReportController {
     private final AdminReportService adminReportService;
     private final PlainEmailService emailService;
+    private final MailDeliveryService mailDeliveryService;
+    private final ReportJobService reportJobService;
+    private final ReportCacheService reportCacheService;
+    private final OrderRollupService rollupService;
 
  // Download report (Excel/PDF/Word) with correct headers
     @PostMapping("/download")
     public ResponseEntity<byte[]> downloadReport(@RequestBody @Valid AdminReportRequest request) {
         try {
-            byte[] reportData = adminReportService.generateReport(request);
+            byte[] reportData = reportCacheService.getOrGenerate(request);
 
             String filename = String.format("admin_report_%s.%s",
                     safeLower(request.getDuration()),
@@ -45,11 +68,53 @@ public class SimpleReportController {
         }
     }
 
-    // Save report locally on server filesystem (./reports)
+    // Stream report to the response as it is rendered (chunked, nothing buffered in memory)
+    @PostMapping("/download/stream")
+    public ResponseEntity<StreamingResponseBody> streamReport(@RequestBody @Valid AdminReportRequest request) {
+        if (!adminReportService.isSupportedFormat(request.getFormat())) {
+            return ResponseEntity.badRequest()
+                    .header("X-Error", "Unsupported format: " + request.getFormat())
+                    .build();
+        }
+
+        String filename = String.format("admin_report_%s.%s",
+                safeLower(request.getDuration()),
+                getFileExtension(request.getFormat()));
+
+        StreamingResponseBody body = out -> adminReportService.writeReport(request, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(getMediaType(request.getFormat()))
+                .body(body);
+    }
+
+    // Stream several formats of one report as a zip; the rows are fetched once for all of them
+    @PostMapping("/download/bundle")
+    public ResponseEntity<StreamingResponseBody> downloadBundle(@RequestBody @Valid AdminReportRequest request) {
+        for (String format : adminReportService.requestedFormats(request)) {
+            if (!adminReportService.isSupportedFormat(format)) {
+                return ResponseEntity.badRequest()
+                        .header("X-Error", "Unsupported format: " + format)
+                        .build();
+            }
+        }
+
+        String filename = String.format("admin_report_%s.zip", safeLower(request.getDuration()));
+
+        StreamingResponseBody body = out -> adminReportService.writeReportBundle(request, out,
+                format -> String.format("admin_report_%s.%s", safeLower(request.getDuration()), getFileExtension(format)));
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    // Save report locally on server filesystem (./reports); extra formats are rendered from the same rows
     @PostMapping("/save")
     public ApiResponse<String> saveLocally(@RequestBody @Valid AdminReportRequest request) {
         try {
-            byte[] data = adminReportService.generateReport(request);
             String filename = String.format("admin_report_%s.%s",
                     safeLower(request.getDuration()),
                     getFileExtension(request.getFormat()));
@@ -58,8 +123,45 @@ public class SimpleReportController {
             if (!Files.exists(folder)) {
                 Files.createDirectories(folder);
             }
+
+            // Every format renders to a temp file first; none replaces its target unless all of them rendered
+            List<String> formats = adminReportService.requestedFormats(request);
+            if (formats.size() > 1) {
+                Map<String, Path> temps = new LinkedHashMap<>();
+                try {
+                    for (String format : formats) {
+                        temps.put(format, Files.createTempFile(folder, "admin_report_", ".tmp"));
+                    }
+                    adminReportService.writeReports(request, temps::get);
+                    List<Path> saved = new ArrayList<>();
+                    for (Map.Entry<String, Path> temp : temps.entrySet()) {
+                        Path target = folder.resolve(String.format("admin_report_%s.%s",
+                                safeLower(request.getDuration()), getFileExtension(temp.getKey())));
+                        Files.move(temp.getValue(), target, StandardCopyOption.ATOMIC_MOVE,
+                                StandardCopyOption.REPLACE_EXISTING);
+                        saved.add(target);
+                    }
+                    return ApiResponse.success("Saved at: " + saved.stream()
+                            .map(p -> p.toAbsolutePath().toString())
+                            .collect(Collectors.joining(", ")));
+                } finally {
+                    for (Path temp : temps.values()) {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            }
+
+            // Rendered next to the target and moved over it, so a failed render leaves the old file intact
             Path filePath = folder.resolve(filename);
-            Files.write(filePath, data);
+            Path temp = Files.createTempFile(folder, filename + ".", ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    adminReportService.writeReport(request, out);
+                }
+                Files.move(temp, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
 
             return ApiResponse.success("Saved at: " + filePath.toAbsolutePath());
         } catch (Exception e) {
@@ -67,11 +169,12 @@ public class SimpleReportController {
         }
     }
 
-    // Email the report as a plain text email with attachment (no template)
+    // Email the report as a plain text email with attachment (no template); delivery is queued
     @PostMapping("/email")
     public ApiResponse<String> emailReport(@RequestBody @Valid EmailReportRequest request) {
+        Path attachment = null;
         try {
-            byte[] reportData = adminReportService.generateReport(request.getReportRequest());
+            byte[] reportData = reportCacheService.getOrGenerate(request.getReportRequest());
 
             String defaultName = String.format("admin_report_%s.%s",
                     safeLower(request.getReportRequest().getDuration()),
@@ -79,20 +182,111 @@ public class SimpleReportController {
 
             String filename = StringUtils.hasText(request.getFilename()) ? request.getFilename() : defaultName;
 
-            emailService.sendWithAttachment(
+            // The queue attaches from disk, so the pending mail holds no copy of the report
+            attachment = Files.createTempFile("report-mail-", "." + getFileExtension(request.getReportRequest().getFormat()));
+            Files.write(attachment, reportData);
+
+            String text = emailText(request.getReportRequest());
+            String deliveryId = emailService.sendWithAttachment(
                     request.getEmailTo(),
                     request.getSubject(),
-                    "Please find the requested report attached.",
-                    reportData,
-                    filename
+                    text,
+                    attachment,
+                    filename,
+                    mailBatchKey(request, filename, text, reportData.length)
             );
 
-            return ApiResponse.success("Report emailed to " + request.getEmailTo());
+            return ApiResponse.success("Report queued for delivery to " + request.getEmailTo(), deliveryId);
         } catch (Exception e) {
+            if (attachment != null) {
+                attachment.toFile().delete();
+            }
             return ApiResponse.fail("Failed to email report: " + e.getMessage());
         }
     }
 
+    @GetMapping("/mail/stats")
+    public ApiResponse<MailQueueStats> mailStats() {
+        return ApiResponse.success(mailDeliveryService.stats());
+    }
+
+    @GetMapping("/cache/stats")
+    public ApiResponse<ReportCacheStats> cacheStats() {
+        return ApiResponse.success(reportCacheService.stats());
+    }
+
+    // Queue a report for background rendering; poll the job for status and progress
+    @PostMapping("/jobs")
+    public ApiResponse<ReportJobDto> submitJob(@RequestBody @Valid AdminReportRequest request) {
+        return ApiResponse.success("Report job queued", reportJobService.submit(request));
+    }
+
+    // Queue a report and email it once rendered
+    @PostMapping("/jobs/email")
+    public ApiResponse<ReportJobDto> submitEmailJob(@RequestBody @Valid EmailReportRequest request) {
+        String defaultName = String.format("admin_report_%s.%s",
+                safeLower(request.getReportRequest().getDuration()),
+                getFileExtension(request.getReportRequest().getFormat()));
+        String filename = StringUtils.hasText(request.getFilename()) ? request.getFilename() : defaultName;
+
+        String text = emailText(request.getReportRequest());
+        ReportJobDto job = reportJobService.submit(request.getReportRequest(), artifact -> {
+            // The job artifact may be purged before the mail goes out, so the queue gets its own copy
+            Path attachment = Files.createTempFile("report-mail-", ".tmp");
+            Files.copy(artifact, attachment, StandardCopyOption.REPLACE_EXISTING);
+            emailService.sendWithAttachment(
+                    request.getEmailTo(),
+                    request.getSubject(),
+                    text,
+                    attachment,
+                    filename,
+                    null);
+        });
+        return ApiResponse.success("Report job queued", job);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ApiResponse<ReportJobDto> getJob(@PathVariable String id) {
+        return ApiResponse.success(reportJobService.getJob(id));
+    }
+
+    @GetMapping("/jobs/{id}/artifact")
+    public ResponseEntity<Resource> downloadJobArtifact(@PathVariable String id) {
+        ReportJobDto job = reportJobService.getJob(id);
+        Path artifact = reportJobService.getArtifact(id);
+
+        String filename = String.format("admin_report_%s.%s",
+                safeLower(job.getDuration()),
+                getFileExtension(job.getFormat()));
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(getMediaType(job.getFormat()))
+                .body(new FileSystemResource(artifact));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ApiResponse<ReportJobDto> cancelJob(@PathVariable String id) {
+        return ApiResponse.success("Cancel requested", reportJobService.cancel(id));
+    }
+
+    // Period totals come from the daily rollups, not from the report rows
+    private String emailText(AdminReportRequest request) {
+        OrderSummaryDto summary = rollupService.summarize(request.getDuration());
+        return String.format("Please find the requested report attached.%n%n"
+                        + "Period: %s to %s%nTotal orders: %d%nUnique customers: %d%nTotal revenue: %.2f",
+                summary.getFrom(), summary.getTo(), summary.getTotalOrders(),
+                summary.getUniqueCustomers(), summary.getTotalRevenue());
+    }
+
+    // Identical report emails queued close together go out as one message
+    private String mailBatchKey(EmailReportRequest request, String filename, String text, int size) {
+        AdminReportRequest r = request.getReportRequest();
+        return String.join("|", safeLower(r.getDuration()), safeLower(r.getFormat()), String.valueOf(r.getStatus()),
+                String.valueOf(r.getCustomerId()), String.valueOf(r.getMaxRows()), String.valueOf(request.getSubject()),
+                filename, String.valueOf(text.hashCode()), String.valueOf(size));
+    }
+
     private String safeLower(String v) {
         return v == null ? "" : v.toLowerCase();
     }
@@ -103,6 +297,10 @@ public class SimpleReportController {
             case "EXCEL": return "xlsx";
             case "PDF": return "pdf";
             case "WORD": return "docx";
+            case "CSV": return "csv";
+            case "CSV_GZ": return "csv.gz";
+            case "NDJSON": return "ndjson";
+            case "NDJSON_GZ": return "ndjson.gz";
             default: return "dat";
         }
     }
@@ -116,6 +314,13 @@ public class SimpleReportController {
                 return MediaType.APPLICATION_PDF;
             case "WORD":
                 return MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+            case "CSV":
+                return MediaType.parseMediaType("text/csv");
+            case "NDJSON":
+                return MediaType.parseMediaType("application/x-ndjson");
+            case "CSV_GZ":
+            case "NDJSON_GZ":
+                return MediaType.parseMediaType("application/gzip");
             default:
                 return MediaType.APPLICATION_OCTET_STREAM;
         }
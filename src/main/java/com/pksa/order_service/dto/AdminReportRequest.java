@@ -1,17 +1,35 @@
 package com.pksa.order_service.dto;
 
 import lombok.Data;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
+
 @Data
 public class AdminReportRequest {
     @NotNull
     private String duration; // "1_WEEK", "1_MONTH", "6_MONTHS"
     
     @NotNull
-    private String format; // "EXCEL", "PDF", "WORD"
+    private String format; // "EXCEL", "PDF", "WORD", "CSV", "NDJSON"; "CSV_GZ"/"NDJSON_GZ" for gzipped output
+
+    // Extra formats rendered from the same rows by /download/bundle and /save
+    private List<String> formats;
     
     // Optional filters
     private String status; 
     private Integer customerId;
+
+    // Streaming mode: rows are read in chunks and written as they arrive
+    private boolean streaming;
+
+    // Optional row cap, never above report.max-rows
+    @Min(1)
+    private Integer maxRows;
+
+    // Normalised once here so the queries and the report cache key agree: any case, blank means no filter
+    public String getStatus() {
+        return status == null || status.isBlank() ? null : status.trim().toUpperCase();
+    }
 }
@@ -0,0 +1,18 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchiveStats {
+    private int segments;
+    private long rows;
+    private long bytes; // compressed size on disk
+    private LocalDateTime oldestOrder;
+    private LocalDateTime newestOrder;
+    private boolean running;
+}
@@ -0,0 +1,22 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOrderResult {
+    private int index;
+    private boolean success;
+    private OrderDto order;
+    private String error;
+
+    public static BatchOrderResult ok(int index, OrderDto order) {
+        return new BatchOrderResult(index, true, order, null);
+    }
+
+    public static BatchOrderResult failed(int index, String error) {
+        return new BatchOrderResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,26 @@
+package com.pksa.order_service.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateRequest {
+    @NotBlank
+    private String status; // target status, e.g. SHIPPED
+
+    // Either explicit ids...
+    private List<Integer> ids;
+
+    // ...or a filter over orders currently in the previous status
+    private Integer customerId;
+    private LocalDateTime orderDateFrom;
+    private LocalDateTime orderDateTo;
+
+    // Optional cap on filter matches, never above orders.status.max-size
+    @Min(1)
+    private Integer limit;
+}
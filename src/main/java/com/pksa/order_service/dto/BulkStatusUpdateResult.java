@@ -0,0 +1,15 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkStatusUpdateResult {
+    private String status;
+    private int updated;
+    private List<StatusUpdateResult> results;
+}
@@ -0,0 +1,20 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryCacheStats {
+    private long hits;
+    private long misses;
+    private long writeThroughs;
+    private long invalidations;
+    private long remoteInvalidations;
+    private long evictions;
+    private long expirations;
+    private int customers;
+    private long rows;
+    private double hitRate;
+}
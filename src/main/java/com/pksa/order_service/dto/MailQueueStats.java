@@ -0,0 +1,20 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailQueueStats {
+    private int queueDepth;
+    private int inFlight;
+    private long enqueued;
+    private long batchedRecipients;
+    private long sent;
+    private long retries;
+    private long failed;
+    private long connectionsOpened;
+    private double avgLatencyMs; // enqueue to accepted by the SMTP server
+    private long maxLatencyMs;
+}
@@ -0,0 +1,22 @@
+package com.pksa.order_service.dto;
+
+import com.pksa.order_service.event.OrderChangedEvent.ChangeType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderChangeDto {
+    private Long seq;
+    private Integer orderId;
+    private ChangeType changeType;
+    private Integer productId;
+    private Integer customerId;
+    private Integer quantity;
+    private LocalDateTime orderDate;
+    private String status;
+    private LocalDateTime changedAt;
+}
@@ -15,4 +15,5 @@ public class OrderDto {
     private Integer quantity;
     private LocalDateTime orderDate;
     private String status; // e.g., NEW, SHIPPED, DELIVERED
+    private Double unitPrice; // product price when the order was placed
 }
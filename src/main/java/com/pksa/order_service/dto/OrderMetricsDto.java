@@ -0,0 +1,21 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderMetricsDto {
+    private String window;
+    private long ordersPlaced;
+    private double ordersPerMinute;
+    private long quantity;
+    private long ordersDeleted;
+    private Map<String, Double> perMinuteByStatus; // status events per minute, approximate figures below
+    private long distinctCustomers;
+    private List<ProductVolumeDto> topProducts;
+}
@@ -0,0 +1,15 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderPage {
+    private List<OrderDto> items;
+    private String nextCursor; // null on the last page
+    private boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderSummaryDto {
+    private LocalDate from;
+    private LocalDate to;
+    private long totalOrders;
+    private long totalQuantity;
+    private double totalRevenue;
+    private long uniqueCustomers;
+    private Map<String, Long> ordersByStatus;
+}
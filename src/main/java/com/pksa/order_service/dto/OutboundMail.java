@@ -0,0 +1,19 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.nio.file.Path;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboundMail {
+    private String to;
+    private String subject;
+    private String body;
+    private boolean html;
+    private Path attachment; // temp file, owned and deleted by the mail queue once enqueued
+    private String attachmentName;
+    private String batchKey; // queued mails with the same key are sent once to all their recipients
+}
@@ -0,0 +1,19 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductCacheStats {
+    private long hits;
+    private long misses;
+    private long staleServed;
+    private long coalesced;
+    private long refreshes;
+    private long loadFailures;
+    private long evictions;
+    private int size;
+    private String circuitState;
+}
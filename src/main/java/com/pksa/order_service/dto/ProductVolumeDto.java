@@ -0,0 +1,12 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductVolumeDto {
+    private Integer productId;
+    private long quantity;
+}
@@ -0,0 +1,20 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportCacheStats {
+    private long localHits;
+    private long redisHits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private long invalidations;
+    private long remoteInvalidations;
+    private int entries;
+    private long bytes;
+    private double hitRate;
+}
@@ -0,0 +1,22 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportJobDto {
+    private String id;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    private String format;
+    private String duration;
+    private long rowsRendered;
+    private Long artifactBytes;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -0,0 +1,14 @@
+package com.pksa.order_service.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatusUpdateResult {
+    private Integer id;
+    private String outcome; // UPDATED, ALREADY_IN_STATUS, INVALID_TRANSITION, CONFLICT, NOT_FOUND
+    private String currentStatus;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.pksa.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/** Customers that placed at least one order on a given day; backs distinct-customer counts. */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(DailyOrderCustomerId.class)
+@Table(name = "order_daily_customers")
+public class DailyOrderCustomer {
+    @Id
+    private LocalDate day;
+    @Id
+    private Integer customerId;
+}
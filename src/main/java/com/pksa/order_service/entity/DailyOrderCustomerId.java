@@ -0,0 +1,14 @@
+package com.pksa.order_service.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderCustomerId implements Serializable {
+    private LocalDate day;
+    private Integer customerId;
+}
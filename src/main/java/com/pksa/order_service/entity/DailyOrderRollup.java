@@ -0,0 +1,29 @@
+package com.pksa.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Per-day, per-status, per-product order aggregates, maintained incrementally by
+ * {@code OrderRollupService} and rebuilt from {@code orders} on demand.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(DailyOrderRollupId.class)
+@Table(name = "order_daily_rollups")
+public class DailyOrderRollup {
+    @Id
+    private LocalDate day;
+    @Id
+    private String status;
+    @Id
+    private Integer productId;
+    private long orderCount;
+    private long quantity;
+    private double revenue;
+}
@@ -0,0 +1,15 @@
+package com.pksa.order_service.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyOrderRollupId implements Serializable {
+    private LocalDate day;
+    private String status;
+    private Integer productId;
+}
@@ -9,14 +9,25 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_orders_customer_order_date_id", columnList = "customer_id, order_date, id"),
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date")
+})
 public class Order {
+    // Pooled sequence ids let Hibernate batch inserts; IDENTITY forces one INSERT per round trip
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Integer id;
     private Integer productId;
+    @Column(name = "customer_id")
     private Integer customerId;
     private Integer quantity;
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
+    // Stored as a smallint code; the Java side and every query parameter keep using the status name
+    @Convert(converter = OrderStatusConverter.class)
     private String status;
+    private Double unitPrice;
 }
@@ -0,0 +1,36 @@
+package com.pksa.order_service.entity;
+
+import com.pksa.order_service.event.OrderChangedEvent.ChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One row per order write. Rows are inserted in one batch just before the writing transaction
+ * commits and carry its transaction id, so the feed can be read in (txId, seq) order and only
+ * up to the oldest transaction that is still running.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "order_changes", indexes = @Index(name = "idx_order_changes_tx_seq", columnList = "tx_id, seq"))
+public class OrderChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_changes_seq")
+    @SequenceGenerator(name = "order_changes_seq", sequenceName = "order_changes_seq", allocationSize = 1)
+    private Long seq;
+    private Integer orderId;
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+    private Integer productId;
+    private Integer customerId;
+    private Integer quantity;
+    private LocalDateTime orderDate;
+    private String status;
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+    @Column(name = "tx_id")
+    private Long txId;
+}
@@ -0,0 +1,22 @@
+package com.pksa.order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * How far each order journal has been applied, written by {@code OrderJournalService} in the
+ * same transaction as the orders it covers, so replay resumes exactly after the last commit.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "order_journal_positions")
+public class OrderJournalPosition {
+    @Id
+    private String journalId;
+    @Column(name = "segment_no")
+    private long segment;
+    @Column(name = "segment_offset")
+    private long offset;
+}
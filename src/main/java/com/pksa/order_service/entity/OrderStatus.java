@@ -0,0 +1,60 @@
+package com.pksa.order_service.entity;
+
+/**
+ * Order lifecycle. Orders only move forward one step at a time: NEW -> SHIPPED -> DELIVERED.
+ * Rows store the {@link #code()} in a smallint column (see {@link OrderStatusConverter});
+ * codes are persisted, so never renumber them.
+ */
+public enum OrderStatus {
+    NEW(1),
+    SHIPPED(2),
+    DELIVERED(3);
+
+    private final short code;
+
+    OrderStatus(int code) {
+        this.code = (short) code;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    public static OrderStatus fromCode(short code) {
+        for (OrderStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status code: " + code);
+    }
+
+    /** The only status an order can move to {@code this} from, or null for the initial status. */
+    public OrderStatus requiredPrevious() {
+        return switch (this) {
+            case NEW -> null;
+            case SHIPPED -> NEW;
+            case DELIVERED -> SHIPPED;
+        };
+    }
+
+    /** Accepts bare or JSON-quoted names in any case, as sent to the status endpoints. */
+    public static OrderStatus parse(String value) {
+        OrderStatus status = find(value);
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown order status: " + value);
+        }
+        return status;
+    }
+
+    /** Like {@link #parse}, but returns null for an unknown name. */
+    public static OrderStatus find(String value) {
+        String name = value == null ? "" : value.trim().replace("\"", "").toUpperCase();
+        for (OrderStatus status : values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.pksa.order_service.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps status names to {@link OrderStatus} codes. Hibernate also applies it to parameters compared
+ * with {@code Order.status} in JPQL, so callers keep passing names; native queries must pass codes.
+ * An unknown name, as a report or list filter may carry, becomes {@link #UNKNOWN_CODE} and matches
+ * no rows. Writes always go through {@link OrderStatus#parse} first, so it is never stored.
+ */
+@Converter
+public class OrderStatusConverter implements AttributeConverter<String, Short> {
+    static final short UNKNOWN_CODE = 0;
+    private static final String[] NAMES_BY_CODE;
+
+    static {
+        int max = 0;
+        for (OrderStatus status : OrderStatus.values()) {
+            max = Math.max(max, status.code());
+        }
+        NAMES_BY_CODE = new String[max + 1];
+        for (OrderStatus status : OrderStatus.values()) {
+            NAMES_BY_CODE[status.code()] = status.name();
+        }
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String status) {
+        if (status == null) {
+            return null;
+        }
+        OrderStatus known = OrderStatus.find(status);
+        return known == null ? UNKNOWN_CODE : known.code();
+    }
+
+    // Hot on every row read, so decoding is an array lookup returning the shared enum name
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        if (code == null) {
+            return null;
+        }
+        if (code < 0 || code >= NAMES_BY_CODE.length || NAMES_BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown order status code: " + code);
+        }
+        return NAMES_BY_CODE[code];
+    }
+}
@@ -0,0 +1,29 @@
+package com.pksa.order_service.event;
+
+import com.pksa.order_service.dto.OrderDto;
+
+/**
+ * Published by {@code OrderService} after an order write has been saved.
+ * {@code previous} is null for creates, {@code current} is null for deletes.
+ */
+public record OrderChangedEvent(ChangeType type, OrderDto previous, OrderDto current) {
+
+    public enum ChangeType { CREATED, STATUS_UPDATED, DELETED }
+
+    public static OrderChangedEvent created(OrderDto order) {
+        return new OrderChangedEvent(ChangeType.CREATED, null, order);
+    }
+
+    public static OrderChangedEvent statusUpdated(OrderDto previous, OrderDto current) {
+        return new OrderChangedEvent(ChangeType.STATUS_UPDATED, previous, current);
+    }
+
+    public static OrderChangedEvent deleted(OrderDto order) {
+        return new OrderChangedEvent(ChangeType.DELETED, order, null);
+    }
+
+    /** The order as it looks after the change, or as it looked before a delete. */
+    public OrderDto order() {
+        return current != null ? current : previous;
+    }
+}
@@ -0,0 +1,5 @@
+package com.pksa.order_service.exception;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(String msg) { super(msg);}
+}
@@ -0,0 +1,5 @@
+package com.pksa.order_service.exception;
+
+public class ReportJobNotFoundException extends RuntimeException {
+    public ReportJobNotFoundException(String msg) { super(msg);}
+}
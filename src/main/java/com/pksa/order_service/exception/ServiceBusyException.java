@@ -0,0 +1,5 @@
+package com.pksa.order_service.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String msg) { super(msg);}
+}
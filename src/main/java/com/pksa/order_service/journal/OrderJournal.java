@@ -0,0 +1,384 @@
+package com.pksa.order_service.journal;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of newly placed orders, split into numbered segment files. Records are
+ * fixed-size and CRC-checked. Appends use group commit: whichever caller finds no flush in
+ * progress writes everything queued so far with one write and one fsync, and the others wait
+ * for it, so one fsync covers a whole burst.
+ * <p>
+ * A failed write or fsync fails only the appends it had not yet made durable. The segment it hit
+ * is sealed at its last durable offset, so records of failed appends are never replayed, and the
+ * next batch starts a new segment. How far the journal has been applied is kept by the caller;
+ * {@link #release} deletes segments wholly before that point.
+ */
+public class OrderJournal implements Closeable {
+    private static final int PAYLOAD_SIZE = 4 + 4 + 4 + 4 + 8 + 8;
+    private static final int RECORD_SIZE = 4 + PAYLOAD_SIZE;
+    private static final String ID_FILE = "journal-id";
+    // Quantity is optional on placement; prices use NaN for the same purpose
+    private static final int NO_QUANTITY = Integer.MIN_VALUE;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Consumer<List<Entry>> onDurable;
+    private final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private List<Append> queued = new ArrayList<>();
+    private boolean flushing;
+
+    private long segment;
+    private FileChannel channel;
+    private long position;
+    private long durablePosition;
+    // A segment abandoned after a failure whose seal has not been written yet
+    private Position unsealed;
+
+    /** The id of the journal in {@code directory}, created with the directory on first use. */
+    public static String id(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(ID_FILE);
+        if (!Files.exists(file)) {
+            Path temp = directory.resolve(ID_FILE + ".tmp");
+            Files.writeString(temp, UUID.randomUUID().toString(), StandardCharsets.US_ASCII);
+            force(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return Files.readString(file, StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Opens the journal in {@code directory}, truncating a torn record at the tail, and returns it
+     * together with every entry after {@code applied}, in journal order.
+     *
+     * @param onDurable called in journal order with each batch of entries once it is on disk
+     */
+    public static Opened open(Path directory, long segmentSize, Position applied,
+                              Consumer<List<Entry>> onDurable) throws IOException {
+        Files.createDirectories(directory);
+
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path file : files) {
+                segments.put(segmentNumber(file), file);
+            }
+        }
+
+        List<Entry> unapplied = new ArrayList<>();
+        for (var segmentFile : segments.entrySet()) {
+            if (segmentFile.getKey() < applied.segment()) {
+                continue;
+            }
+            long from = segmentFile.getKey() == applied.segment() ? applied.offset() : 0;
+            readSegment(segmentFile.getKey(), segmentFile.getValue(), from,
+                    sealedLength(directory, segmentFile.getKey()), unapplied);
+        }
+
+        OrderJournal journal = new OrderJournal(directory, segmentSize, onDurable);
+        long last = segments.isEmpty() ? Math.max(applied.segment(), 1) : segments.lastKey();
+        journal.openSegment(sealedLength(directory, last) >= 0 ? last + 1 : last);
+        return new Opened(journal, unapplied);
+    }
+
+    private OrderJournal(Path directory, long segmentSize, Consumer<List<Entry>> onDurable) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.onDurable = onDurable;
+    }
+
+    /** Appends {@code order} and returns once it is on disk; throws if this append did not make it. */
+    public void append(OrderDto order) throws IOException {
+        Append mine = new Append(order);
+        lock.lock();
+        try {
+            queued.add(mine);
+            while (!mine.done) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Become the leader for everything queued so far
+                List<Append> batch = queued;
+                queued = new ArrayList<>();
+                flushing = true;
+                lock.unlock();
+                List<Entry> durable = new ArrayList<>(batch.size());
+                IOException failure = write(batch, durable);
+                if (!durable.isEmpty()) {
+                    try {
+                        onDurable.accept(durable);
+                    } catch (RuntimeException e) {
+                        // The entries are on disk either way and are replayed on the next start
+                        logger.error("Handling {} durable journal entries failed: {}", durable.size(), e.getMessage());
+                    }
+                }
+                lock.lock();
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).failure = i < durable.size() ? null : failure;
+                    batch.get(i).done = true;
+                }
+                flushing = false;
+                flushed.signalAll();
+            }
+            if (mine.failure != null) {
+                throw new IOException("Order was not journaled", mine.failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Deletes the segments wholly before {@code applied}, once everything up to it is applied. */
+    public void release(Position applied) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "journal-*.log")) {
+            for (Path file : files) {
+                long number = segmentNumber(file);
+                if (number < applied.segment()) {
+                    Files.deleteIfExists(file);
+                    Files.deleteIfExists(sealPath(directory, number));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes {@code batch}, adding each entry to {@code durable} once it is fsynced. Returns the
+     * failure that stopped it, or null. Only the leader gets here, so the channel is not shared.
+     */
+    private IOException write(List<Append> batch, List<Entry> durable) {
+        try {
+            if (channel == null) {
+                if (unsealed != null) {
+                    seal();
+                }
+                openSegment(segment + 1);
+            }
+            List<Entry> buffered = new ArrayList<>(batch.size());
+            ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE);
+            for (Append append : batch) {
+                if (position + buffer.position() + RECORD_SIZE > segmentSize && position + buffer.position() > 0) {
+                    flush(buffer);
+                    durable.addAll(buffered);
+                    buffered.clear();
+                    openSegment(segment + 1);
+                }
+                encode(append.order, buffer);
+                buffered.add(new Entry(append.order, new Position(segment, position + buffer.position())));
+            }
+            flush(buffer);
+            durable.addAll(buffered);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            abandonSegment();
+            return e instanceof IOException io ? io : new IOException(e);
+        }
+    }
+
+    private void flush(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+        channel.force(false);
+        durablePosition = position;
+        buffer.clear();
+    }
+
+    // Bytes past the last fsync may or may not have reached the disk, so the segment is cut off there
+    private void abandonSegment() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Closing journal segment {} failed: {}", segment, e.getMessage());
+            }
+            channel = null;
+            unsealed = new Position(segment, durablePosition);
+        }
+        if (unsealed != null) {
+            try {
+                seal();
+            } catch (IOException e) {
+                logger.error("Sealing journal segment {} failed, retrying on the next append: {}",
+                        unsealed.segment(), e.getMessage());
+            }
+        }
+    }
+
+    private void seal() throws IOException {
+        Path temp = directory.resolve("seal.tmp");
+        Files.writeString(temp, String.valueOf(unsealed.offset()), StandardCharsets.US_ASCII);
+        force(temp);
+        Files.move(temp, sealPath(directory, unsealed.segment()),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        logger.warn("Journal segment {} sealed at offset {}", unsealed.segment(), unsealed.offset());
+        unsealed = null;
+    }
+
+    private void openSegment(long number) throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        FileChannel opened = FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = number;
+        channel = opened;
+        position = channel.size();
+        durablePosition = position;
+    }
+
+    // A sealed segment is read up to its seal only; records past it belong to failed appends
+    private static void readSegment(long number, Path file, long from, long sealedLength, List<Entry> into)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            long offset = from;
+            while (sealedLength < 0 || offset + RECORD_SIZE <= sealedLength) {
+                record.clear();
+                int read = 0;
+                while (record.hasRemaining()) {
+                    int n = channel.read(record, offset + read);
+                    if (n < 0) {
+                        break;
+                    }
+                    read += n;
+                }
+                record.flip();
+                OrderDto order = read == RECORD_SIZE ? decode(record) : null;
+                if (order == null) {
+                    // A torn or partial record can only be the last one written before a crash
+                    if (sealedLength < 0 && offset < channel.size()) {
+                        channel.truncate(offset);
+                        channel.force(true);
+                    }
+                    return;
+                }
+                offset += RECORD_SIZE;
+                into.add(new Entry(order, new Position(number, offset)));
+            }
+        }
+    }
+
+    private static void encode(OrderDto order, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putInt(order.getId());
+        buffer.putInt(order.getProductId());
+        buffer.putInt(order.getCustomerId());
+        buffer.putInt(order.getQuantity() == null ? NO_QUANTITY : order.getQuantity());
+        buffer.putLong(micros(order.getOrderDate()));
+        buffer.putDouble(order.getUnitPrice() == null ? Double.NaN : order.getUnitPrice());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start + 4, PAYLOAD_SIZE);
+        buffer.putInt(start, (int) crc.getValue());
+    }
+
+    private static OrderDto decode(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, PAYLOAD_SIZE);
+        if (record.getInt(0) != (int) crc.getValue()) {
+            return null;
+        }
+        record.position(4);
+        int id = record.getInt();
+        int productId = record.getInt();
+        int customerId = record.getInt();
+        int quantity = record.getInt();
+        LocalDateTime orderDate = fromMicros(record.getLong());
+        double unitPrice = record.getDouble();
+        return new OrderDto(id, productId, customerId, quantity == NO_QUANTITY ? null : quantity, orderDate,
+                OrderStatus.NEW.name(),
+                Double.isNaN(unitPrice) ? null : unitPrice);
+    }
+
+    private static long sealedLength(Path directory, long number) throws IOException {
+        Path seal = sealPath(directory, number);
+        if (!Files.exists(seal)) {
+            return -1;
+        }
+        return Long.parseLong(Files.readString(seal, StandardCharsets.US_ASCII).trim());
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("journal-%016d.log", number));
+    }
+
+    private static Path sealPath(Path directory, long number) {
+        return directory.resolve(String.format("journal-%016d.sealed", number));
+    }
+
+    // Order dates are truncated to microseconds before journaling, matching Postgres timestamps
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /** A point in the journal: just past the record it belongs to. */
+    public record Position(long segment, long offset) {}
+
+    public record Entry(OrderDto order, Position end) {}
+
+    public record Opened(OrderJournal journal, List<Entry> unapplied) {}
+
+    // Guarded by the lock; set by the leader that flushed it
+    private static final class Append {
+        final OrderDto order;
+        boolean done;
+        IOException failure;
+
+        Append(OrderDto order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.pksa.order_service.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch over int keys backed by a single {@link AtomicLongArray}; updates are
+ * lock-free and estimates never undercount.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counts;
+
+    public CountMinSketch(int depth, int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width must be a power of two");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new AtomicLongArray(depth * width);
+    }
+
+    public void add(int key, long amount) {
+        for (int row = 0; row < depth; row++) {
+            counts.addAndGet(row * width + slot(key, row), amount);
+        }
+    }
+
+    public long estimate(int key) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts.get(row * width + slot(key, row)));
+        }
+        return min;
+    }
+
+    private int slot(int key, int row) {
+        return (int) (Hashing.mix64(key + ((long) row << 32)) & (width - 1));
+    }
+}
@@ -0,0 +1,13 @@
+package com.pksa.order_service.metrics;
+
+public final class Hashing {
+    private Hashing() {
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids across all 64 bits
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
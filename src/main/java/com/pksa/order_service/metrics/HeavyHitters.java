@@ -0,0 +1,62 @@
+package com.pksa.order_service.metrics;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed set of heavy-hitter candidates ranked by a {@link CountMinSketch}. A key takes the slot
+ * of the weakest candidate once its estimate beats it; slots are swapped with CAS, so a lost race
+ * only means one offer is dropped. Duplicates from racing inserts are removed by readers.
+ */
+public class HeavyHitters {
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final AtomicIntegerArray candidates;
+
+    public HeavyHitters(int capacity) {
+        this.candidates = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            candidates.set(i, EMPTY);
+        }
+    }
+
+    public void offer(int key, CountMinSketch counts) {
+        int weakestSlot = -1;
+        int weakestKey = EMPTY;
+        long weakestCount = Long.MAX_VALUE;
+        for (int i = 0; i < candidates.length(); i++) {
+            int candidate = candidates.get(i);
+            if (candidate == key) {
+                return;
+            }
+            if (candidate == EMPTY) {
+                if (candidates.compareAndSet(i, EMPTY, key)) {
+                    return;
+                }
+                candidate = candidates.get(i);
+                if (candidate == key) {
+                    return;
+                }
+            }
+            long count = counts.estimate(candidate);
+            if (count < weakestCount) {
+                weakestSlot = i;
+                weakestKey = candidate;
+                weakestCount = count;
+            }
+        }
+        if (weakestSlot >= 0 && counts.estimate(key) > weakestCount) {
+            candidates.compareAndSet(weakestSlot, weakestKey, key);
+        }
+    }
+
+    /** Adds the current candidates to {@code target}. */
+    public void collectInto(Set<Integer> target) {
+        for (int i = 0; i < candidates.length(); i++) {
+            int candidate = candidates.get(i);
+            if (candidate != EMPTY) {
+                target.add(candidate);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pksa.order_service.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size HyperLogLog with lock-free updates: each register only ever grows, via CAS.
+ * With {@code precision} p the sketch uses 2^p registers and has ~1.04/sqrt(2^p) relative error.
+ */
+public class HyperLogLog {
+    private final int precision;
+    private final AtomicIntegerArray registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+    }
+
+    public void add(long value) {
+        long hash = Hashing.mix64(value);
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int current;
+        while (rank > (current = registers.get(index))) {
+            if (registers.compareAndSet(index, current, rank)) {
+                return;
+            }
+        }
+    }
+
+    /** Takes the register-wise maximum of this sketch into {@code target}. */
+    public void mergeInto(int[] target) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = Math.max(target[i], registers.get(i));
+        }
+    }
+
+    public int registerCount() {
+        return registers.length();
+    }
+
+    public long estimate() {
+        int[] snapshot = new int[registers.length()];
+        mergeInto(snapshot);
+        return estimate(snapshot);
+    }
+
+    public static long estimate(int[] registers) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Small-range correction: linear counting is more accurate while many registers are empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
@@ -0,0 +1,171 @@
+package com.pksa.order_service.metrics;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order activity over the last hour kept in a ring of one-minute buckets. Each bucket holds
+ * per-status counters, a HyperLogLog of customers and a Count-Min sketch with heavy-hitter
+ * candidates for product quantities, so memory is fixed by the configuration rather than by traffic.
+ * Writers never lock: a stale bucket is replaced by CAS on the ring slot, and every structure
+ * inside a bucket is updated with atomics.
+ */
+public class SlidingWindowOrderMetrics {
+    public static final int MAX_WINDOW_MINUTES = 60;
+    // Status strings are free-form; anything past this many distinct values is counted as OTHER
+    static final int MAX_STATUSES = 16;
+    static final String OTHER_STATUS = "OTHER";
+
+    private static final int HLL_PRECISION = 11;
+    private static final int CMS_DEPTH = 4;
+    private static final int CMS_WIDTH = 512;
+    private static final int HEAVY_HITTER_SLOTS = 32;
+
+    private final Clock clock;
+    private final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(MAX_WINDOW_MINUTES);
+    private final Map<String, Integer> statusSlots = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> statusNames = new AtomicReferenceArray<>(MAX_STATUSES);
+
+    public SlidingWindowOrderMetrics(Clock clock) {
+        this.clock = clock;
+        statusSlot(OTHER_STATUS);
+    }
+
+    public void recordCreated(int customerId, int productId, int quantity, String status) {
+        Bucket bucket = currentBucket();
+        bucket.created.increment();
+        bucket.quantity.add(quantity);
+        bucket.statusCounts.incrementAndGet(statusSlot(status));
+        bucket.customers.add(customerId);
+        bucket.productQuantities.add(productId, quantity);
+        bucket.topProducts.offer(productId, bucket.productQuantities);
+    }
+
+    public void recordStatusChange(String status) {
+        currentBucket().statusCounts.incrementAndGet(statusSlot(status));
+    }
+
+    public void recordDeleted() {
+        currentBucket().deleted.increment();
+    }
+
+    /** Aggregates the current minute and the {@code minutes - 1} before it. */
+    public Snapshot snapshot(int minutes, int topK) {
+        if (minutes < 1 || minutes > MAX_WINDOW_MINUTES) {
+            throw new IllegalArgumentException("Window must be between 1 and " + MAX_WINDOW_MINUTES + " minutes");
+        }
+        long now = currentMinute();
+        List<Bucket> buckets = new ArrayList<>(minutes);
+        for (int i = 0; i < minutes; i++) {
+            Bucket bucket = ring.get(slot(now - i));
+            if (bucket != null && bucket.minute == now - i) {
+                buckets.add(bucket);
+            }
+        }
+
+        long created = 0;
+        long quantity = 0;
+        long deleted = 0;
+        long[] statusTotals = new long[MAX_STATUSES];
+        int[] registers = new int[1 << HLL_PRECISION];
+        Set<Integer> candidates = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            created += bucket.created.sum();
+            quantity += bucket.quantity.sum();
+            deleted += bucket.deleted.sum();
+            for (int s = 0; s < MAX_STATUSES; s++) {
+                statusTotals[s] += bucket.statusCounts.get(s);
+            }
+            bucket.customers.mergeInto(registers);
+            bucket.topProducts.collectInto(candidates);
+        }
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (int s = 0; s < MAX_STATUSES; s++) {
+            if (statusTotals[s] > 0) {
+                byStatus.put(statusNames.get(s), statusTotals[s]);
+            }
+        }
+
+        // A product's window total is the sum of its per-minute estimates
+        List<ProductCount> topProducts = candidates.stream()
+                .map(id -> new ProductCount(id, buckets.stream()
+                        .mapToLong(b -> b.productQuantities.estimate(id))
+                        .sum()))
+                .sorted(Comparator.comparingLong(ProductCount::quantity).reversed())
+                .limit(topK)
+                .toList();
+
+        long distinctCustomers = created == 0 ? 0 : HyperLogLog.estimate(registers);
+        return new Snapshot(minutes, created, quantity, deleted, byStatus, distinctCustomers, topProducts);
+    }
+
+    private Bucket currentBucket() {
+        long minute = currentMinute();
+        int slot = slot(minute);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.minute == minute) {
+                return bucket;
+            }
+            // First writer of a new minute swaps in a fresh bucket; the losers use the winner's
+            Bucket fresh = new Bucket(minute);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int statusSlot(String status) {
+        String name = status == null || status.isBlank() ? "UNKNOWN" : status.trim().toUpperCase();
+        Integer slot = statusSlots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (statusNames) {
+            slot = statusSlots.get(name);
+            if (slot == null) {
+                if (statusSlots.size() >= MAX_STATUSES) {
+                    return statusSlots.get(OTHER_STATUS);
+                }
+                slot = statusSlots.size();
+                statusNames.set(slot, name);
+                statusSlots.put(name, slot);
+            }
+            return slot;
+        }
+    }
+
+    private long currentMinute() {
+        return clock.millis() / 60_000;
+    }
+
+    private static int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) MAX_WINDOW_MINUTES);
+    }
+
+    private static final class Bucket {
+        final long minute;
+        final LongAdder created = new LongAdder();
+        final LongAdder quantity = new LongAdder();
+        final LongAdder deleted = new LongAdder();
+        final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUSES);
+        final HyperLogLog customers = new HyperLogLog(HLL_PRECISION);
+        final CountMinSketch productQuantities = new CountMinSketch(CMS_DEPTH, CMS_WIDTH);
+        final HeavyHitters topProducts = new HeavyHitters(HEAVY_HITTER_SLOTS);
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    public record ProductCount(int productId, long quantity) {}
+
+    public record Snapshot(int minutes, long created, long quantity, long deleted,
+                           Map<String, Long> eventsByStatus, long distinctCustomers,
+                           List<ProductCount> topProducts) {}
+}
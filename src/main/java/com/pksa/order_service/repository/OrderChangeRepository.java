@@ -0,0 +1,41 @@
+package com.pksa.order_service.repository;
+
+import com.pksa.order_service.dto.OrderChangeDto;
+import com.pksa.order_service.entity.OrderChange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface OrderChangeRepository extends JpaRepository<OrderChange, Long> {
+
+    // Read with a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.pksa.order_service.dto.OrderChangeDto(c.seq, c.orderId, c.changeType, c.productId,
+                    c.customerId, c.quantity, c.orderDate, c.status, c.changedAt)
+            from OrderChange c
+            where c.txId < :xmin
+              and (c.txId > :sinceTxId or (c.txId = :sinceTxId and c.seq > :since))
+            order by c.txId, c.seq
+            """)
+    Stream<OrderChangeDto> streamChangesAfter(@Param("since") long since,
+                                              @Param("sinceTxId") long sinceTxId,
+                                              @Param("xmin") long xmin,
+                                              Limit limit);
+
+    @Query("select c.txId from OrderChange c where c.seq = :seq")
+    Optional<Long> findTxIdBySeq(@Param("seq") long seq);
+
+    // Every transaction with a smaller id has finished, so no change below it can still appear
+    @Query(value = "select pg_snapshot_xmin(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long currentXmin();
+}
@@ -1,11 +1,236 @@
 package com.pksa.order_service.repository;
 
+import com.pksa.order_service.dto.OrderDto;
 import com.pksa.order_service.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
-    List<Order> findByCustomerId(Integer customerId);
-    List<Order> findByOrderDateBetween(LocalDateTime start, LocalDateTime end);
+    // Read model: rows are projected straight into DTOs in read-only transactions, so no managed
+    // entities or dirty-checking snapshots are created for them
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            """)
+    List<OrderDto> findAllRows();
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.id = :id
+            """)
+    Optional<OrderDto> findRowById(@Param("id") Integer id);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.customerId = :customerId
+            """)
+    List<OrderDto> findCustomerRows(@Param("customerId") Integer customerId);
+
+    // Report rows projected straight into DTOs, filtered and sorted in SQL
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.orderDate between :start and :end
+              and (:status is null or o.status = :status)
+              and (:customerId is null or o.customerId = :customerId)
+            order by o.orderDate desc, o.id desc
+            """)
+    List<OrderDto> findReportRows(@Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end,
+                                     @Param("status") String status,
+                                     @Param("customerId") Integer customerId);
+
+    // Keyset chunk for streaming reports: newest first, strictly after (afterDate, afterId)
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.orderDate between :start and :end
+              and (:status is null or o.status = :status)
+              and (:customerId is null or o.customerId = :customerId)
+              and (o.orderDate < :afterDate or (o.orderDate = :afterDate and o.id < :afterId))
+            order by o.orderDate desc, o.id desc
+            """)
+    List<OrderDto> findReportChunk(@Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end,
+                                   @Param("status") String status,
+                                   @Param("customerId") Integer customerId,
+                                   @Param("afterDate") LocalDateTime afterDate,
+                                   @Param("afterId") Integer afterId,
+                                   Pageable page);
+
+    // Same rows through a server-side cursor for row-by-row formats; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.orderDate between :start and :end
+              and (:status is null or o.status = :status)
+              and (:customerId is null or o.customerId = :customerId)
+            order by o.orderDate desc, o.id desc
+            """)
+    Stream<OrderDto> streamReportRows(@Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end,
+                                      @Param("status") String status,
+                                      @Param("customerId") Integer customerId,
+                                      Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select count(o) from Order o
+            where o.orderDate between :start and :end
+              and (:status is null or o.status = :status)
+              and (:customerId is null or o.customerId = :customerId)
+            """)
+    long countReportRows(@Param("start") LocalDateTime start,
+                         @Param("end") LocalDateTime end,
+                         @Param("status") String status,
+                         @Param("customerId") Integer customerId);
+
+    // Keyset pages ordered by (orderDate, id); the leading >= lets the index range-scan
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            order by o.orderDate, o.id
+            """)
+    List<OrderDto> findFirstPage(Pageable page);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.orderDate >= :afterDate
+              and (o.orderDate > :afterDate or o.id > :afterId)
+            order by o.orderDate, o.id
+            """)
+    List<OrderDto> findPageAfter(@Param("afterDate") LocalDateTime afterDate,
+                                 @Param("afterId") Integer afterId,
+                                 Pageable page);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.customerId = :customerId
+            order by o.orderDate, o.id
+            """)
+    List<OrderDto> findCustomerFirstPage(@Param("customerId") Integer customerId, Pageable page);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.pksa.order_service.dto.OrderDto(o.id, o.productId, o.customerId, o.quantity, o.orderDate, o.status,
+                    o.unitPrice)
+            from Order o
+            where o.customerId = :customerId
+              and o.orderDate >= :afterDate
+              and (o.orderDate > :afterDate or o.id > :afterId)
+            order by o.orderDate, o.id
+            """)
+    List<OrderDto> findCustomerPageAfter(@Param("customerId") Integer customerId,
+                                         @Param("afterDate") LocalDateTime afterDate,
+                                         @Param("afterId") Integer afterId,
+                                         Pageable page);
+
+    // Status transitions are compare-and-set on the previous status, so a concurrent change makes them miss.
+    // Native statements bypass OrderStatusConverter and take OrderStatus codes.
+    @Query(value = """
+            update orders set status = :to
+            where id = :id and status = :from
+            returning *
+            """, nativeQuery = true)
+    List<Order> transitionStatus(@Param("id") Integer id,
+                                 @Param("from") short from,
+                                 @Param("to") short to);
+
+    // Rows are locked in id order first so overlapping bulk updates cannot deadlock each other
+    @Query(value = """
+            update orders set status = :to
+            where id in (select id from orders
+                         where id in (:ids) and status = :from
+                         order by id
+                         for update)
+            returning *
+            """, nativeQuery = true)
+    List<Order> transitionStatuses(@Param("ids") Collection<Integer> ids,
+                                   @Param("from") short from,
+                                   @Param("to") short to);
+
+    // Filtered variant; rows locked by another writer are skipped and picked up by the next call
+    @Query(value = """
+            update orders set status = :to
+            where id in (select id from orders
+                         where status = :from
+                           and (cast(:customerId as integer) is null or customer_id = :customerId)
+                           and (cast(:fromDate as timestamp) is null or order_date >= :fromDate)
+                           and (cast(:toDate as timestamp) is null or order_date <= :toDate)
+                         order by id
+                         limit :limit
+                         for update skip locked)
+            returning *
+            """, nativeQuery = true)
+    List<Order> transitionStatusesMatching(@Param("from") short from,
+                                           @Param("to") short to,
+                                           @Param("customerId") Integer customerId,
+                                           @Param("fromDate") LocalDateTime fromDate,
+                                           @Param("toDate") LocalDateTime toDate,
+                                           @Param("limit") int limit);
+
+    @Query("select o.id as id, o.status as status from Order o where o.id in :ids")
+    List<OrderStatusView> findStatuses(@Param("ids") Collection<Integer> ids);
+
+    // Archival candidates, oldest first; rows being changed by another writer are left for the next run
+    @Query(value = """
+            select * from orders
+            where status = :status and order_date < :before
+            order by order_date, id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<Order> findArchivable(@Param("status") short status,
+                               @Param("before") LocalDateTime before,
+                               @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteAllByIds(@Param("ids") Collection<Integer> ids);
+
+    @Query("select count(o) from Order o where o.id in :ids")
+    long countByIds(@Param("ids") Collection<Integer> ids);
+
+    interface OrderStatusView {
+        Integer getId();
+        String getStatus();
+    }
 }
@@ -0,0 +1,50 @@
+package com.pksa.order_service.repository;
+
+import com.pksa.order_service.entity.DailyOrderRollup;
+import com.pksa.order_service.entity.DailyOrderRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderRollupRepository extends JpaRepository<DailyOrderRollup, DailyOrderRollupId> {
+
+    @Query("""
+            select r.status, sum(r.orderCount), sum(r.quantity), sum(r.revenue)
+            from DailyOrderRollup r
+            where r.day between :from and :to
+            group by r.status
+            """)
+    List<Object[]> sumByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select count(distinct c.customerId)
+            from DailyOrderCustomer c
+            where c.day between :from and :to
+            """)
+    long countDistinctCustomers(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "lock table order_daily_rollups, order_daily_customers in exclusive mode", nativeQuery = true)
+    void lockRollupTables();
+
+    @Modifying
+    @Query("delete from DailyOrderRollup r where r.day between :from and :to")
+    int deleteRollups(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from DailyOrderCustomer c where c.day between :from and :to")
+    int deleteCustomers(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = """
+            insert into order_daily_customers (day, customer_id)
+            select distinct cast(o.order_date as date), o.customer_id
+            from orders o
+            where o.order_date >= :fromTime and o.order_date < :toTime and o.customer_id is not null
+            """, nativeQuery = true)
+    int rebuildCustomers(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+}
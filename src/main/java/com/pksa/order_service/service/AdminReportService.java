@@ -1,63 +1,334 @@
 package com.pksa.order_service.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
 import com.pksa.order_service.dto.AdminReportRequest;
 import com.pksa.order_service.dto.OrderDto;
-import com.pksa.order_service.entity.Order;
 import com.pksa.order_service.repository.OrderRepository;
+import com.pksa.order_service.support.StreamingDocxWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.usermodel.XWPFParagraph;
-import org.apache.poi.xwpf.usermodel.XWPFRun;
-import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
 public class AdminReportService {
     private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final OrderArchiveService archiveService;
+    private final Logger logger = LoggerFactory.getLogger(AdminReportService.class);
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Value("${report.stream.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${report.excel.row-window:100}")
+    private int excelRowWindow;
+
+    @Value("${report.max-rows:1000000}")
+    private int maxRows;
+
+    @Value("${report.pdf.flush-rows:100}")
+    private int pdfFlushRows;
+
+    @Value("${report.render.workers:3}")
+    private int renderWorkers;
+
+    private ThreadPoolExecutor renderExecutor;
+
+    @PostConstruct
+    void startRenderWorkers() {
+        // A saturated pool renders on the caller's thread rather than failing the request
+        renderExecutor = new ThreadPoolExecutor(renderWorkers, renderWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderWorkers * 4), new CustomizableThreadFactory("report-render-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopRenderWorkers() {
+        renderExecutor.shutdownNow();
+    }
     
     public byte[] generateReport(AdminReportRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeReport(request, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders the report straight into {@code out}. Renderers never close the target,
+     * so callers can pass a servlet or zip entry stream.
+     */
+    public void writeReport(AdminReportRequest request, OutputStream out) throws IOException {
+        writeReport(request, out, ReportProgress.NONE);
+    }
+
+    public void writeReport(AdminReportRequest request, OutputStream out, ReportProgress progress) throws IOException {
+        String format = formatTag(request.getFormat());
+        CountingOutputStream target = new CountingOutputStream(CloseShieldOutputStream.wrap(out));
+        Observation.createNotStarted("reports.generate", observationRegistry)
+                .lowCardinalityKeyValue("format", format)
+                .lowCardinalityKeyValue("streaming", String.valueOf(request.isStreaming()))
+                .observeChecked(() -> renderReport(request, target, progress));
+        DistributionSummary.builder("reports.bytes")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .register(meterRegistry)
+                .record(target.getByteCount());
+    }
+
+    private void renderReport(AdminReportRequest request, OutputStream target, ReportProgress progress) throws IOException {
         // Step 1: Calculate date range
         LocalDateTime startDate = calculateStartDate(request.getDuration());
         LocalDateTime endDate = LocalDateTime.now();
+
+        // Row formats are written straight from a database cursor, whatever the streaming flag says
+        if (isRowFormat(request.getFormat())) {
+            writeCursorReport(request, startDate, endDate, target, progress);
+            return;
+        }
+
+        // Streaming modes read rows in keyset chunks, so only one chunk is on the heap at a time
+        if (request.isStreaming() && "EXCEL".equalsIgnoreCase(request.getFormat())) {
+            writeStreamingExcelReport(request, startDate, endDate, target, progress);
+            return;
+        }
+        if (request.isStreaming() && "PDF".equalsIgnoreCase(request.getFormat())) {
+            writeStreamingPdfReport(request, startDate, endDate, target, progress);
+            return;
+        }
+        if (request.isStreaming() && "WORD".equalsIgnoreCase(request.getFormat())) {
+            writeStreamingWordReport(request, startDate, endDate, target, progress);
+            return;
+        }
         
-        // Step 2: Get orders from database
-        List<Order> allOrders = orderRepository.findByOrderDateBetween(startDate, endDate);
-        
-        // Step 3: Apply filters using streams
-        List<OrderDto> filteredOrders = allOrders.stream()
-                .filter(order -> request.getStatus() == null || 
-                        order.getStatus().equals(request.getStatus()))
-                .filter(order -> request.getCustomerId() == null || 
-                        order.getCustomerId().equals(request.getCustomerId()))
-                .sorted((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()))
-                .map(this::toDto)
-                .toList();
+        // Step 2: Get filtered, sorted rows from database (filtering and sorting happen in SQL)
+        String format = formatTag(request.getFormat());
+        List<OrderDto> filteredOrders = phaseTimer("query", format).record(() -> reportRows(
+                startDate, endDate, request.getStatus(), request.getCustomerId()));
         
-        // Step 4: Generate report based on format
-        return switch (request.getFormat().toUpperCase()) {
-            case "EXCEL" -> generateExcelReport(filteredOrders, startDate, endDate);
-            case "PDF" -> generatePdfReport(filteredOrders, startDate, endDate);
-            case "WORD" -> generateWordReport(filteredOrders, startDate, endDate);
-            default -> throw new IllegalArgumentException("Unsupported format: " + request.getFormat());
+        // Step 3: Generate report based on format
+        Timer.Sample render = Timer.start(meterRegistry);
+        try {
+            writeRows(request.getFormat(), filteredOrders, startDate, endDate, target, progress);
+        } finally {
+            render.stop(phaseTimer("render", format));
+        }
+    }
+
+    // Streaming and cursor modes interleave query and render, so only reports.generate covers them
+    private Timer phaseTimer(String phase, String format) {
+        return Timer.builder("reports.phase")
+                .tag("phase", phase)
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    // Format comes from the request, so unknown values are folded into one tag value
+    private String formatTag(String format) {
+        return isSupportedFormat(format) ? format.toUpperCase() : "OTHER";
+    }
+
+    /** The primary format followed by any extra {@code formats}, upper-cased and without duplicates. */
+    public List<String> requestedFormats(AdminReportRequest request) {
+        LinkedHashSet<String> formats = new LinkedHashSet<>();
+        formats.add(request.getFormat().toUpperCase());
+        if (request.getFormats() != null) {
+            request.getFormats().stream()
+                    .filter(f -> f != null && !f.isBlank())
+                    .forEach(f -> formats.add(f.toUpperCase()));
+        }
+        return List.copyOf(formats);
+    }
+
+    /**
+     * Renders every requested format from a single query, each on its own render worker, into the
+     * file {@code target} names for it. Wall time is roughly the slowest renderer plus one fetch.
+     */
+    public Map<String, Path> writeReports(AdminReportRequest request, Function<String, Path> target) throws IOException {
+        List<String> formats = requestedFormats(request);
+        for (String format : formats) {
+            if (!isSupportedFormat(format)) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+        }
+        long startedAt = System.currentTimeMillis();
+
+        // Step 1: Fetch the rows once for every format
+        LocalDateTime startDate = calculateStartDate(request.getDuration());
+        LocalDateTime endDate = LocalDateTime.now();
+        List<OrderDto> rows = phaseTimer("query", "MULTI").record(() -> reportRows(
+                startDate, endDate, request.getStatus(), request.getCustomerId()));
+        long fetchMs = System.currentTimeMillis() - startedAt;
+
+        // Step 2: Render the formats concurrently; the row list is shared read-only
+        Map<String, Path> files = new LinkedHashMap<>();
+        Map<String, Future<Long>> renders = new LinkedHashMap<>();
+        for (String format : formats) {
+            Path file = target.apply(format);
+            files.put(format, file);
+            renders.put(format, renderExecutor.submit(() -> {
+                long renderStart = System.currentTimeMillis();
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                    writeRows(format, rows, startDate, endDate, out, ReportProgress.NONE);
+                }
+                long took = System.currentTimeMillis() - renderStart;
+                phaseTimer("render", format).record(took, TimeUnit.MILLISECONDS);
+                DistributionSummary.builder("reports.bytes")
+                        .baseUnit("bytes")
+                        .tag("format", format)
+                        .register(meterRegistry)
+                        .record(Files.size(file));
+                return took;
+            }));
+        }
+
+        // Step 3: Wait for all of them; one failure fails the whole set
+        Map<String, Long> renderMs = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<Long>> render : renders.entrySet()) {
+                renderMs.put(render.getKey(), render.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(renders, files);
+            throw new InterruptedIOException("Interrupted while rendering " + formats);
+        } catch (ExecutionException e) {
+            abandon(renders, files);
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Rendering failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        logger.info("Multi-format report: formats={}, rows={}, fetch={}ms, render={}, total={}ms",
+                formats, rows.size(), fetchMs, renderMs, System.currentTimeMillis() - startedAt);
+        return files;
+    }
+
+    /**
+     * Renders all requested formats with {@link #writeReports} and streams them into {@code out} as a
+     * zip, one entry per format named by {@code entryName}. Renders go through temp files.
+     */
+    public void writeReportBundle(AdminReportRequest request, OutputStream out,
+                                  Function<String, String> entryName) throws IOException {
+        Path workDir = Files.createTempDirectory("report-bundle-");
+        try {
+            Map<String, Path> files = writeReports(request, format -> workDir.resolve(format));
+            ZipOutputStream zip = new ZipOutputStream(CloseShieldOutputStream.wrap(out));
+            // The rendered formats are already compressed, so favour speed
+            zip.setLevel(Deflater.BEST_SPEED);
+            for (Map.Entry<String, Path> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entryName.apply(file.getKey())));
+                Files.copy(file.getValue(), zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            try (var paths = Files.list(workDir)) {
+                for (Path path : paths.toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            Files.deleteIfExists(workDir);
+        }
+    }
+
+    private void abandon(Map<String, Future<Long>> renders, Map<String, Path> files) {
+        renders.values().forEach(f -> f.cancel(true));
+        files.values().forEach(file -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete partial report {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    private void writeRows(String format, List<OrderDto> orders, LocalDateTime start, LocalDateTime end,
+                           OutputStream out, ReportProgress progress) throws IOException {
+        switch (format.toUpperCase()) {
+            case "EXCEL" -> writeExcelReport(orders, start, end, out, progress);
+            case "PDF" -> writePdfReport(orders, start, end, out, progress);
+            case "WORD" -> writeWordReport(orders, start, end, out, progress);
+            case "CSV", "CSV_GZ", "NDJSON", "NDJSON_GZ" -> writeRowFormat(format, orders.iterator(), out, progress);
+            default -> throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+    }
+
+    public boolean isSupportedFormat(String format) {
+        return format != null && switch (format.toUpperCase()) {
+            case "EXCEL", "PDF", "WORD", "CSV", "CSV_GZ", "NDJSON", "NDJSON_GZ" -> true;
+            default -> false;
         };
     }
     
-    private LocalDateTime calculateStartDate(String duration) {
+    LocalDateTime calculateStartDate(String duration) {
         LocalDateTime now = LocalDateTime.now();
         return switch (duration) {
             case "1_WEEK" -> now.minusWeeks(1);
@@ -67,9 +338,9 @@ public class AdminReportService {
         };
     }
     
-    private byte[] generateExcelReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end) throws IOException {
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    private void writeExcelReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end,
+                                  OutputStream out, ReportProgress progress) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
             
             XSSFSheet sheet = workbook.createSheet("Orders Report");
             
@@ -106,110 +377,402 @@ public class AdminReportService {
                 row.createCell(3).setCellValue(order.getQuantity());
                 row.createCell(4).setCellValue(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
                 row.createCell(5).setCellValue(order.getStatus());
+                progress.rowWritten();
             }
             
             workbook.write(out);
-            return out.toByteArray();
         }
     }
     
-    private byte[] generatePdfReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end) throws IOException {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(out);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-            
-            // Title
-            document.add(new Paragraph("ADMIN ORDERS REPORT")
-                    .setFontSize(18)
-                    .setBold());
-            
-            document.add(new Paragraph("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) + 
-                    " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE)));
-            
-            document.add(new Paragraph("Total Orders: " + orders.size()));
-            document.add(new Paragraph("\n"));
-            
-            // Create table
-            Table table = new Table(6);
-            table.addHeaderCell("Order ID");
-            table.addHeaderCell("Product ID");
-            table.addHeaderCell("Customer ID");
-            table.addHeaderCell("Quantity");
-            table.addHeaderCell("Order Date");
-            table.addHeaderCell("Status");
-            
-            for (OrderDto order : orders) {
-                table.addCell(String.valueOf(order.getId()));
-                table.addCell(String.valueOf(order.getProductId()));
-                table.addCell(String.valueOf(order.getCustomerId()));
-                table.addCell(String.valueOf(order.getQuantity()));
-                table.addCell(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
-                table.addCell(order.getStatus());
+    private void writeStreamingExcelReport(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                           OutputStream out, ReportProgress progress) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        int limit = effectiveMaxRows(request);
+        long matching = countReportRows(start, end, request.getStatus(), request.getCustomerId());
+
+        // Rows beyond the window are flushed to a compressed temp file
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelRowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Orders Report");
+
+            sheet.createRow(0).createCell(0).setCellValue("ADMIN ORDERS REPORT");
+            sheet.createRow(1).createCell(0).setCellValue("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) +
+                    " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE));
+
+            String total = "Total Orders: " + matching;
+            if (matching > limit) {
+                total += " (showing first " + limit + ")";
             }
-            
-            document.add(table);
-            document.close();
-            
-            return out.toByteArray();
+            sheet.createRow(2).createCell(0).setCellValue(total);
+            sheet.createRow(3);
+
+            Row headerRow = sheet.createRow(4);
+            headerRow.createCell(0).setCellValue("Order ID");
+            headerRow.createCell(1).setCellValue("Product ID");
+            headerRow.createCell(2).setCellValue("Customer ID");
+            headerRow.createCell(3).setCellValue("Quantity");
+            headerRow.createCell(4).setCellValue("Order Date");
+            headerRow.createCell(5).setCellValue("Status");
+
+            int[] rowNum = {5};
+            ScanResult scan = scanReportRows(request, start, end, limit, order -> {
+                Row row = sheet.createRow(rowNum[0]++);
+                row.createCell(0).setCellValue(order.getId());
+                row.createCell(1).setCellValue(order.getProductId());
+                row.createCell(2).setCellValue(order.getCustomerId());
+                row.createCell(3).setCellValue(order.getQuantity());
+                row.createCell(4).setCellValue(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                row.createCell(5).setCellValue(order.getStatus());
+                progress.rowWritten();
+            });
+
+            workbook.write(out);
+            logger.info("Streaming EXCEL report: rows={}, truncated={}, peakHeapMb={}, took={}ms",
+                    scan.rows(), matching > limit, scan.peakHeapBytes() / (1024 * 1024),
+                    System.currentTimeMillis() - startedAt);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Large-report PDF: the table is added to the document up front as a large table and flushed
+     * every {@code report.pdf.flush-rows} rows, so finished pages are laid out and written to
+     * {@code out} while the scan is still running. Header cells repeat on every page.
+     */
+    private void writeStreamingPdfReport(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                         OutputStream out, ReportProgress progress) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        int limit = effectiveMaxRows(request);
+        long matching = countReportRows(start, end, request.getStatus(), request.getCustomerId());
+
+        PdfDocument pdf = new PdfDocument(new PdfWriter(out));
+        Document document = new Document(pdf);
+        document.add(new Paragraph("ADMIN ORDERS REPORT")
+                .setFontSize(18)
+                .setBold());
+        document.add(new Paragraph("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) +
+                " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE)));
+
+        String total = "Total Orders: " + matching;
+        if (matching > limit) {
+            total += " (showing first " + limit + ")";
+        }
+        document.add(new Paragraph(total));
+        document.add(new Paragraph("\n"));
+
+        Table table = new Table(UnitValue.createPercentArray(6), true).useAllAvailableWidth();
+        table.addHeaderCell("Order ID");
+        table.addHeaderCell("Product ID");
+        table.addHeaderCell("Customer ID");
+        table.addHeaderCell("Quantity");
+        table.addHeaderCell("Order Date");
+        table.addHeaderCell("Status");
+        document.add(table);
+
+        int[] pending = {0};
+        ScanResult scan = scanReportRows(request, start, end, limit, order -> {
+            table.addCell(String.valueOf(order.getId()));
+            table.addCell(String.valueOf(order.getProductId()));
+            table.addCell(String.valueOf(order.getCustomerId()));
+            table.addCell(String.valueOf(order.getQuantity()));
+            table.addCell(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+            table.addCell(order.getStatus());
+            progress.rowWritten();
+            if (++pending[0] == pdfFlushRows) {
+                table.flush();
+                pending[0] = 0;
+            }
+        });
+        table.complete();
+        // Only closed once every row is in: a failed scan leaves the output without a trailer,
+        // like the Excel path, instead of a truncated report that still opens
+        document.close();
+
+        logger.info("Streaming PDF report: rows={}, truncated={}, peakHeapMb={}, took={}ms",
+                scan.rows(), matching > limit, scan.peakHeapBytes() / (1024 * 1024),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * CSV and NDJSON: rows come from a read-only cursor and are written one by one, so memory stays
+     * flat however many rows match. The {@code _GZ} variants compress on the fly.
+     */
+    private void writeCursorReport(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                   OutputStream out, ReportProgress progress) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            Integer rows = readOnly.execute(status -> {
+                int limit = effectiveMaxRows(request);
+                try (Stream<OrderDto> hot = orderRepository.streamReportRows(start, end, request.getStatus(),
+                        request.getCustomerId(), Limit.of(limit));
+                     Stream<OrderDto> orders = archiveService.withArchived(hot.iterator(), start, end,
+                             request.getStatus(), request.getCustomerId())) {
+                    return writeRowFormat(request.getFormat(), orders.limit(limit).iterator(), out, progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Cursor {} report: rows={}, took={}ms",
+                    request.getFormat().toUpperCase(), rows, System.currentTimeMillis() - startedAt);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int writeRowFormat(String format, Iterator<OrderDto> orders, OutputStream out,
+                               ReportProgress progress) throws IOException {
+        if (!isRowFormat(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        String f = format.toUpperCase();
+        GZIPOutputStream gzip = f.endsWith("_GZ") ? new GZIPOutputStream(out, 64 * 1024) : null;
+        OutputStream sink = gzip != null ? gzip : out;
+        int rows = 0;
+
+        if ("CSV".equals(f) || "CSV_GZ".equals(f)) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write("order_id,product_id,customer_id,quantity,order_date,status,unit_price\n");
+            while (orders.hasNext()) {
+                OrderDto order = orders.next();
+                writer.write(String.valueOf(order.getId()));
+                writer.write(',');
+                writer.write(String.valueOf(order.getProductId()));
+                writer.write(',');
+                writer.write(String.valueOf(order.getCustomerId()));
+                writer.write(',');
+                writer.write(String.valueOf(order.getQuantity()));
+                writer.write(',');
+                writer.write(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                writer.write(',');
+                writer.write(csvField(order.getStatus()));
+                writer.write(',');
+                writer.write(order.getUnitPrice() == null ? "" : String.valueOf(order.getUnitPrice()));
+                writer.write('\n');
+                rows++;
+                progress.rowWritten();
+            }
+            writer.flush();
+        } else {
+            BufferedOutputStream writer = new BufferedOutputStream(sink, 64 * 1024);
+            while (orders.hasNext()) {
+                writer.write(objectMapper.writeValueAsBytes(orders.next()));
+                writer.write('\n');
+                rows++;
+                progress.rowWritten();
+            }
+            writer.flush();
+        }
+
+        if (gzip != null) {
+            gzip.finish();
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static boolean isRowFormat(String format) {
+        String f = format.toUpperCase();
+        return "CSV".equals(f) || "CSV_GZ".equals(f) || "NDJSON".equals(f) || "NDJSON_GZ".equals(f);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Feeds matching orders, newest first, to {@code rowConsumer} one keyset chunk at a time
+     * and samples heap usage after every chunk. Archived rows are merged in as they are reached.
+     */
+    private ScanResult scanReportRows(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                      int limit, Consumer<OrderDto> rowConsumer) {
+        int rows = 0;
+        long peakHeap = memory.getHeapMemoryUsage().getUsed();
+
+        try (Stream<OrderDto> orders = archiveService.withArchived(keysetRows(request, start, end, limit), start, end,
+                request.getStatus(), request.getCustomerId())) {
+            Iterator<OrderDto> it = orders.iterator();
+            while (rows < limit && it.hasNext()) {
+                rowConsumer.accept(it.next());
+                if (++rows % chunkSize == 0) {
+                    peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+                }
+            }
+        }
+        peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+        return new ScanResult(rows, peakHeap);
+    }
+
+    // Hot rows, fetched one keyset chunk at a time as the iterator is drained
+    private Iterator<OrderDto> keysetRows(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                          int limit) {
+        return new Iterator<>() {
+            private Iterator<OrderDto> chunk = Collections.emptyIterator();
+            private LocalDateTime afterDate = end;
+            private Integer afterId = Integer.MAX_VALUE;
+            private int fetched;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!chunk.hasNext() && !exhausted) {
+                    int size = Math.min(chunkSize, limit - fetched);
+                    List<OrderDto> rows = size <= 0 ? List.of() : orderRepository.findReportChunk(start, end,
+                            request.getStatus(), request.getCustomerId(), afterDate, afterId, PageRequest.of(0, size));
+                    fetched += rows.size();
+                    exhausted = rows.size() < size || size <= 0;
+                    if (!rows.isEmpty()) {
+                        OrderDto last = rows.get(rows.size() - 1);
+                        afterDate = last.getOrderDate();
+                        afterId = last.getId();
+                    }
+                    chunk = rows.iterator();
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public OrderDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    // Hot rows from the table, merged with any archive segments that overlap the range
+    private List<OrderDto> reportRows(LocalDateTime start, LocalDateTime end, String status, Integer customerId) {
+        List<OrderDto> hot = orderRepository.findReportRows(start, end, status, customerId);
+        if (!archiveService.overlaps(start, end, status, customerId)) {
+            return hot;
+        }
+        try (Stream<OrderDto> rows = archiveService.withArchived(hot.iterator(), start, end, status, customerId)) {
+            return rows.toList();
         }
     }
+
+    private long countReportRows(LocalDateTime start, LocalDateTime end, String status, Integer customerId) {
+        return orderRepository.countReportRows(start, end, status, customerId)
+                + archiveService.count(start, end, status, customerId);
+    }
+
+    private int effectiveMaxRows(AdminReportRequest request) {
+        return request.getMaxRows() == null ? maxRows : Math.min(request.getMaxRows(), maxRows);
+    }
+
+    private record ScanResult(int rows, long peakHeapBytes) {}
     
-    private byte[] generateWordReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end) throws IOException {
-        try (XWPFDocument document = new XWPFDocument();
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            
-            // Title
-            XWPFParagraph title = document.createParagraph();
-            XWPFRun titleRun = title.createRun();
-            titleRun.setText("ADMIN ORDERS REPORT");
-            titleRun.setBold(true);
-            titleRun.setFontSize(18);
-            
-            // Period
-            XWPFParagraph period = document.createParagraph();
-            XWPFRun periodRun = period.createRun();
-            periodRun.setText("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) + 
-                    " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE));
-            
-            // Summary
-            XWPFParagraph summary = document.createParagraph();
-            XWPFRun summaryRun = summary.createRun();
-            summaryRun.setText("Total Orders: " + orders.size());
-            
-            // Table
-            XWPFTable table = document.createTable();
-            table.getRow(0).getCell(0).setText("Order ID");
-            table.getRow(0).addNewTableCell().setText("Product ID");
-            table.getRow(0).addNewTableCell().setText("Customer ID");
-            table.getRow(0).addNewTableCell().setText("Quantity");
-            table.getRow(0).addNewTableCell().setText("Order Date");
-            table.getRow(0).addNewTableCell().setText("Status");
-            
+    private void writePdfReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end,
+                                OutputStream out, ReportProgress progress) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf);
+        
+        // Title
+        document.add(new Paragraph("ADMIN ORDERS REPORT")
+                .setFontSize(18)
+                .setBold());
+        
+        document.add(new Paragraph("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) + 
+                " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE)));
+        
+        document.add(new Paragraph("Total Orders: " + orders.size()));
+        document.add(new Paragraph("\n"));
+        
+        // Create table
+        Table table = new Table(6);
+        table.addHeaderCell("Order ID");
+        table.addHeaderCell("Product ID");
+        table.addHeaderCell("Customer ID");
+        table.addHeaderCell("Quantity");
+        table.addHeaderCell("Order Date");
+        table.addHeaderCell("Status");
+        
+        for (OrderDto order : orders) {
+            table.addCell(String.valueOf(order.getId()));
+            table.addCell(String.valueOf(order.getProductId()));
+            table.addCell(String.valueOf(order.getCustomerId()));
+            table.addCell(String.valueOf(order.getQuantity()));
+            table.addCell(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
+            table.addCell(order.getStatus());
+            progress.rowWritten();
+        }
+        
+        document.add(table);
+        document.close();
+    }
+    
+    private void writeWordReport(List<OrderDto> orders, LocalDateTime start, LocalDateTime end,
+                                 OutputStream out, ReportProgress progress) throws IOException {
+        try (StreamingDocxWriter document = new StreamingDocxWriter(out)) {
+            writeWordHeader(document, start, end, "Total Orders: " + orders.size());
             for (OrderDto order : orders) {
-                table.createRow();
-                int rowIndex = table.getNumberOfRows() - 1;
-                table.getRow(rowIndex).getCell(0).setText(String.valueOf(order.getId()));
-                table.getRow(rowIndex).getCell(1).setText(String.valueOf(order.getProductId()));
-                table.getRow(rowIndex).getCell(2).setText(String.valueOf(order.getCustomerId()));
-                table.getRow(rowIndex).getCell(3).setText(String.valueOf(order.getQuantity()));
-                table.getRow(rowIndex).getCell(4).setText(order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE));
-                table.getRow(rowIndex).getCell(5).setText(order.getStatus());
+                writeWordRow(document, order);
+                progress.rowWritten();
             }
-            
-            document.write(out);
-            return out.toByteArray();
+            document.finish();
         }
     }
-    
-    private OrderDto toDto(Order order) {
-        return OrderDto.builder()
-                .id(order.getId())
-                .productId(order.getProductId())
-                .customerId(order.getCustomerId())
-                .quantity(order.getQuantity())
-                .orderDate(order.getOrderDate())
-                .status(order.getStatus())
-                .build();
+
+    // Same layout as the list-based Word report, but rows go from the keyset scan straight into the XML
+    private void writeStreamingWordReport(AdminReportRequest request, LocalDateTime start, LocalDateTime end,
+                                          OutputStream out, ReportProgress progress) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        int limit = effectiveMaxRows(request);
+        long matching = countReportRows(start, end, request.getStatus(), request.getCustomerId());
+
+        try (StreamingDocxWriter document = new StreamingDocxWriter(out)) {
+            String total = "Total Orders: " + matching;
+            if (matching > limit) {
+                total += " (showing first " + limit + ")";
+            }
+            writeWordHeader(document, start, end, total);
+
+            ScanResult scan = scanReportRows(request, start, end, limit, order -> {
+                try {
+                    writeWordRow(document, order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                progress.rowWritten();
+            });
+            document.finish();
+
+            logger.info("Streaming WORD report: rows={}, truncated={}, peakHeapMb={}, took={}ms",
+                    scan.rows(), matching > limit, scan.peakHeapBytes() / (1024 * 1024),
+                    System.currentTimeMillis() - startedAt);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeWordHeader(StreamingDocxWriter document, LocalDateTime start, LocalDateTime end,
+                                 String total) throws IOException {
+        document.paragraph("ADMIN ORDERS REPORT", true, 18);
+        document.paragraph("Period: " + start.format(DateTimeFormatter.ISO_LOCAL_DATE) +
+                " to " + end.format(DateTimeFormatter.ISO_LOCAL_DATE));
+        document.paragraph(total);
+        document.startTable("Order ID", "Product ID", "Customer ID", "Quantity", "Order Date", "Status");
+    }
+
+    private void writeWordRow(StreamingDocxWriter document, OrderDto order) throws IOException {
+        document.row(
+                String.valueOf(order.getId()),
+                String.valueOf(order.getProductId()),
+                String.valueOf(order.getCustomerId()),
+                String.valueOf(order.getQuantity()),
+                order.getOrderDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
+                order.getStatus());
     }
 }
@@ -0,0 +1,87 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.config.WorkerThreads;
+import com.pksa.order_service.dto.CreateOrderDto;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Order placement that never parks a request thread: the product lookup is non-blocking and
+ * the insert runs on a small dedicated pool sized to the connection pool, so database
+ * concurrency stays bounded however many requests are in flight.
+ * <p>
+ * The placement timeout covers the lookup and the wait for a database worker. An insert that has
+ * started is always awaited, so a timeout response never hides an order that was committed and
+ * a retrying client cannot create a duplicate.
+ */
+@Service
+public class AsyncOrderService {
+    private final OrderService orderService;
+    private final ProductCatalogClient productCatalog;
+    private final ThreadPoolExecutor dbExecutor;
+    private final Duration placementTimeout;
+
+    public AsyncOrderService(OrderService orderService,
+                             ProductCatalogClient productCatalog,
+                             WorkerThreads workerThreads,
+                             @Value("${orders.async.db-concurrency:8}") int dbConcurrency,
+                             @Value("${orders.async.queue-capacity:1000}") int queueCapacity,
+                             @Value("${orders.async.timeout:5s}") Duration placementTimeout) {
+        this.orderService = orderService;
+        this.productCatalog = productCatalog;
+        this.placementTimeout = placementTimeout;
+        this.dbExecutor = new ThreadPoolExecutor(dbConcurrency, dbConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), workerThreads.factory("order-db-"));
+    }
+
+    public CompletableFuture<OrderDto> placeOrder(CreateOrderDto dto) {
+        long deadline = System.nanoTime() + placementTimeout.toNanos();
+        // The lookup may be shared with other callers, so the deadline goes on a copy
+        return productCatalog.getProductAsync(dto.getProductId())
+                .copy()
+                .orTimeout(placementTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenCompose(product -> {
+                    if (product == null) {
+                        throw new IllegalArgumentException("Product with ID " + dto.getProductId() + " not found!");
+                    }
+                    try {
+                        return CompletableFuture.supplyAsync(() -> {
+                            // Still queued at the deadline: give up before anything is written
+                            if (System.nanoTime() - deadline > 0) {
+                                throw new ServiceBusyException("Order placement timed out");
+                            }
+                            return orderService.saveNewOrder(dto, product);
+                        }, dbExecutor);
+                    } catch (RejectedExecutionException e) {
+                        throw new ServiceBusyException("Too many orders in flight, try again later");
+                    }
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        throw new ServiceBusyException("Order placement timed out");
+                    }
+                    if (cause instanceof RuntimeException re) {
+                        throw re;
+                    }
+                    throw new IllegalStateException("Failed to place order: " + cause.getMessage(), cause);
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dbExecutor.shutdown();
+    }
+}
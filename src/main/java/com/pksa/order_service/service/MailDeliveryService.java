@@ -0,0 +1,388 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.config.WorkerThreads;
+import com.pksa.order_service.dto.MailQueueStats;
+import com.pksa.order_service.dto.OutboundMail;
+import com.pksa.order_service.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Outbound mail queue. Callers enqueue and return immediately; a small pool of sender threads
+ * each keeps one SMTP connection open across messages, retries failed sends with exponential
+ * backoff and sends attachments straight from temp files. Mails that share a batch key and are
+ * still queued are merged into one message to all their recipients.
+ */
+@Service
+public class MailDeliveryService {
+    private final JavaMailSenderImpl mailSender;
+    private final MeterRegistry meterRegistry;
+    private final WorkerThreads workerThreads;
+    private final Logger logger = LoggerFactory.getLogger(MailDeliveryService.class);
+
+    private final int senderThreads;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration idleTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Deque<Delivery> queue = new ArrayDeque<>();
+    private final Map<String, Delivery> queuedByBatchKey = new HashMap<>();
+
+    private final List<Thread> senders = new ArrayList<>();
+    private final ScheduledThreadPoolExecutor retryScheduler =
+            new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("mail-retry-"));
+    private volatile boolean running;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong batchedRecipients = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+
+    public MailDeliveryService(JavaMailSenderImpl mailSender,
+                               MeterRegistry meterRegistry,
+                               WorkerThreads workerThreads,
+                               @Value("${mail.delivery.threads:2}") int senderThreads,
+                               @Value("${mail.delivery.queue-capacity:500}") int queueCapacity,
+                               @Value("${mail.delivery.max-attempts:5}") int maxAttempts,
+                               @Value("${mail.delivery.initial-backoff:2s}") Duration initialBackoff,
+                               @Value("${mail.delivery.max-backoff:2m}") Duration maxBackoff,
+                               @Value("${mail.delivery.idle-timeout:30s}") Duration idleTimeout) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.workerThreads = workerThreads;
+        this.senderThreads = senderThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.idleTimeout = idleTimeout;
+        Gauge.builder("mail.queue.depth", this, service -> service.stats().getQueueDepth())
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        ThreadFactory threadFactory = workerThreads.factory("mail-sender-", true);
+        for (int i = 0; i < senderThreads; i++) {
+            Thread sender = threadFactory.newThread(this::sendLoop);
+            senders.add(sender);
+            sender.start();
+        }
+    }
+
+    /**
+     * Queues a mail and returns its delivery id. The attachment file belongs to the queue from here
+     * on and is deleted once the mail is sent or given up on.
+     */
+    public String enqueue(OutboundMail mail) {
+        lock.lock();
+        try {
+            if (mail.getBatchKey() != null) {
+                Delivery queued = queuedByBatchKey.get(mail.getBatchKey());
+                if (queued != null) {
+                    queued.recipients.add(mail.getTo());
+                    batchedRecipients.incrementAndGet();
+                    enqueued.incrementAndGet();
+                    deleteQuietly(mail.getAttachment());
+                    return queued.id;
+                }
+            }
+            if (queue.size() >= queueCapacity) {
+                deleteQuietly(mail.getAttachment());
+                throw new ServiceBusyException("Mail queue is full, try again later");
+            }
+            Delivery delivery = new Delivery(UUID.randomUUID().toString(), mail);
+            queue.addLast(delivery);
+            if (mail.getBatchKey() != null) {
+                queuedByBatchKey.put(mail.getBatchKey(), delivery);
+            }
+            enqueued.incrementAndGet();
+            notEmpty.signal();
+            return delivery.id;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public MailQueueStats stats() {
+        int depth;
+        lock.lock();
+        try {
+            depth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+        long sentCount = sent.get();
+        return MailQueueStats.builder()
+                .queueDepth(depth + retryScheduler.getQueue().size())
+                .inFlight(inFlight.get())
+                .enqueued(enqueued.get())
+                .batchedRecipients(batchedRecipients.get())
+                .sent(sentCount)
+                .retries(retries.get())
+                .failed(failed.get())
+                .connectionsOpened(connectionsOpened.get())
+                .avgLatencyMs(sentCount == 0 ? 0.0 : (double) totalLatencyMs.get() / sentCount)
+                .maxLatencyMs(maxLatencyMs.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        senders.forEach(Thread::interrupt);
+        retryScheduler.shutdownNow();
+        lock.lock();
+        try {
+            if (!queue.isEmpty()) {
+                logger.warn("Dropping {} queued mails on shutdown", queue.size());
+            }
+            queue.forEach(d -> deleteQuietly(d.attachment));
+            queue.clear();
+            queuedByBatchKey.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendLoop() {
+        Transport transport = null;
+        try {
+            while (running) {
+                Delivery delivery = take();
+                if (delivery == null) {
+                    // Idle: let the server go rather than hold the session open
+                    transport = closeQuietly(transport);
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                Timer.Sample send = Timer.start(meterRegistry);
+                String outcome = "success";
+                try {
+                    MimeMessage message = buildMessage(delivery);
+                    if (transport == null || !transport.isConnected()) {
+                        transport = closeQuietly(transport);
+                        transport = connect();
+                    }
+                    transport.sendMessage(message, message.getAllRecipients());
+                    onSent(delivery);
+                } catch (MessagingException | RuntimeException e) {
+                    outcome = "failure";
+                    transport = closeQuietly(transport);
+                    onFailure(delivery, e);
+                } finally {
+                    inFlight.decrementAndGet();
+                    send.stop(meterRegistry.timer("mail.send", "outcome", outcome));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(transport);
+        }
+    }
+
+    private Delivery take() throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = idleTimeout.toNanos();
+            while (queue.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            Delivery delivery = queue.pollFirst();
+            queuedByBatchKey.remove(delivery.batchKey, delivery);
+            return delivery;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MimeMessage buildMessage(Delivery delivery) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, delivery.attachment != null, "UTF-8");
+        if (mailSender.getUsername() != null) {
+            helper.setFrom(mailSender.getUsername());
+        }
+        // A batched mail goes out once; Bcc keeps recipients from seeing each other
+        if (delivery.recipients.size() == 1) {
+            helper.setTo(delivery.recipients.iterator().next());
+        } else {
+            helper.setBcc(delivery.recipients.toArray(String[]::new));
+        }
+        helper.setSubject(delivery.subject);
+        helper.setText(delivery.body, delivery.html);
+        if (delivery.attachment != null) {
+            helper.addAttachment(delivery.attachmentName, new FileSystemResource(delivery.attachment));
+        }
+        message.saveChanges();
+        return message;
+    }
+
+    private Transport connect() throws MessagingException {
+        // JavaMailSenderImpl leaves the protocol null unless configured; it sends over smtp in that case
+        String protocol = mailSender.getProtocol() != null
+                ? mailSender.getProtocol()
+                : mailSender.getSession().getProperty("mail.transport.protocol");
+        Transport transport = mailSender.getSession().getTransport(protocol != null ? protocol : "smtp");
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        connectionsOpened.incrementAndGet();
+        return transport;
+    }
+
+    private void onSent(Delivery delivery) {
+        long latency = System.currentTimeMillis() - delivery.enqueuedAt;
+        meterRegistry.timer("mail.delivery.latency").record(latency, TimeUnit.MILLISECONDS);
+        sent.incrementAndGet();
+        totalLatencyMs.addAndGet(latency);
+        maxLatencyMs.accumulateAndGet(latency, Math::max);
+        deleteQuietly(delivery.attachment);
+        logger.info("Mail {} sent to {} recipient(s) in {} ms after {} attempt(s)",
+                delivery.id, delivery.recipients.size(), latency, delivery.attempts + 1);
+    }
+
+    private void onFailure(Delivery delivery, Exception e) {
+        delivery.attempts++;
+        // Recipients the server already accepted, or rejected outright, are not sent to again
+        if (e instanceof SendFailedException sfe && hasAddresses(sfe.getValidUnsentAddresses())) {
+            delivery.recipients.clear();
+            for (Address address : sfe.getValidUnsentAddresses()) {
+                delivery.recipients.add(address instanceof InternetAddress internet ? internet.getAddress() : address.toString());
+            }
+        }
+        if (delivery.attempts >= maxAttempts || !running || isPermanent(e) || delivery.recipients.isEmpty()) {
+            failed.incrementAndGet();
+            deleteQuietly(delivery.attachment);
+            logger.error("Mail {} to {} failed after {} attempt(s): {}",
+                    delivery.id, delivery.recipients, delivery.attempts, e.getMessage());
+            return;
+        }
+        long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(delivery.attempts - 1, 20));
+        retries.incrementAndGet();
+        logger.warn("Mail {} attempt {} failed, retrying in {} ms: {}",
+                delivery.id, delivery.attempts, backoff, e.getMessage());
+        retryScheduler.schedule(() -> requeue(delivery), backoff, TimeUnit.MILLISECONDS);
+    }
+
+    // Retries skip the capacity check: the mail was already accepted once
+    private void requeue(Delivery delivery) {
+        lock.lock();
+        try {
+            queue.addFirst(delivery);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Bad addresses and 5xx replies will not get better by retrying
+    private boolean isPermanent(Exception e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        if (e instanceof SMTPSendFailedException smtp) {
+            return smtp.getReturnCode() >= 500;
+        }
+        if (e instanceof SMTPSenderFailedException smtp) {
+            return smtp.getReturnCode() >= 500;
+        }
+        return e instanceof SendFailedException sfe
+                && !hasAddresses(sfe.getValidUnsentAddresses())
+                && hasAddresses(sfe.getInvalidAddresses());
+    }
+
+    private static boolean hasAddresses(Address[] addresses) {
+        return addresses != null && addresses.length > 0;
+    }
+
+    private Transport closeQuietly(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Closing SMTP connection failed: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete mail attachment {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static final class Delivery {
+        final String id;
+        final String batchKey;
+        final Set<String> recipients = new LinkedHashSet<>();
+        final String subject;
+        final String body;
+        final boolean html;
+        final Path attachment;
+        final String attachmentName;
+        final long enqueuedAt = System.currentTimeMillis();
+        int attempts;
+
+        Delivery(String id, OutboundMail mail) {
+            this.id = id;
+            this.batchKey = mail.getBatchKey();
+            this.recipients.add(mail.getTo());
+            this.subject = mail.getSubject();
+            this.body = mail.getBody() != null ? mail.getBody() : "";
+            this.html = mail.isHtml();
+            this.attachment = mail.getAttachment();
+            this.attachmentName = mail.getAttachmentName();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.archive.ArchiveSegment;
+import com.pksa.order_service.archive.NewestFirstMerge;
+import com.pksa.order_service.dto.ArchiveStats;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.Order;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.exception.ServiceBusyException;
+import com.pksa.order_service.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cold tier for delivered orders older than {@code orders.archive.after}. Each run moves them
+ * oldest first into immutable {@link ArchiveSegment} files and deletes them from {@code orders},
+ * one segment per transaction. Report and customer history reads merge the hot rows with
+ * whichever segments overlap the requested range.
+ * <p>
+ * A segment is published before its delete commits, so readers may briefly see a row in both
+ * tiers; {@link NewestFirstMerge} drops the copy. A {@code .pending} marker next to the segment
+ * records that its transaction has not committed yet. Startup keeps the segment if its rows are
+ * gone from the table and discards it otherwise. Archival is not an order change: no events are
+ * published, so rollups, metrics and caches still count archived orders.
+ */
+@Service
+public class OrderArchiveService {
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final int ID_CHUNK = 1000;
+
+    private final OrderRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration after;
+    private final int segmentRows;
+    private final Duration interval;
+
+    private volatile List<ArchiveSegment> segments = List.of();
+    private final ReentrantLock running = new ReentrantLock();
+    private ScheduledThreadPoolExecutor scheduler;
+
+    public OrderArchiveService(OrderRepository repository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${orders.archive.enabled:false}") boolean enabled,
+                               @Value("${orders.archive.dir:data/order-archive}") Path directory,
+                               @Value("${orders.archive.after:365d}") Duration after,
+                               @Value("${orders.archive.segment-rows:50000}") int segmentRows,
+                               @Value("${orders.archive.interval:6h}") Duration interval) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.after = after;
+        this.segmentRows = segmentRows;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        List<ArchiveSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Path marker = pendingMarker(file);
+                if (Files.exists(marker) && !recover(file)) {
+                    continue;
+                }
+                loaded.add(ArchiveSegment.open(file));
+                Files.deleteIfExists(marker);
+            }
+        }
+        // A marker without its segment is left by a crash before the segment was written
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(directory, "*" + PENDING_SUFFIX)) {
+            for (Path marker : markers) {
+                String name = marker.getFileName().toString();
+                if (!Files.exists(marker.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length())))) {
+                    Files.delete(marker);
+                }
+            }
+        }
+        segments = List.copyOf(loaded);
+        logger.info("Order archive: {} segments, {} rows in {}", loaded.size(),
+                loaded.stream().mapToLong(ArchiveSegment::rowCount).sum(), directory);
+
+        if (enabled) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("order-archive-"));
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    archive();
+                } catch (RuntimeException e) {
+                    logger.error("Scheduled order archival failed: {}", e.getMessage());
+                }
+            }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /** Archives every eligible order, one segment at a time; returns the number of orders moved. */
+    public int archive() {
+        if (!running.tryLock()) {
+            throw new ServiceBusyException("Order archival is already running");
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(after);
+            int total = 0;
+            while (true) {
+                int moved = archiveSegment(cutoff);
+                total += moved;
+                if (moved < segmentRows) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                logger.info("Archived {} orders delivered before {}", total, cutoff);
+            }
+            return total;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int archiveSegment(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(tx -> {
+            // Step 1: Lock the oldest eligible rows so nobody changes them while they are copied
+            List<Order> rows = repository.findArchivable(OrderStatus.DELIVERED.code(), cutoff, segmentRows);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<OrderDto> orders = rows.stream()
+                    .map(OrderService::toDto)
+                    .sorted(NewestFirstMerge.NEWEST_FIRST)
+                    .toList();
+
+            // Step 2: Write the segment behind a pending marker and make it visible to readers
+            Path file = directory.resolve("orders-" + System.currentTimeMillis() + "-" + orders.get(0).getId()
+                    + SEGMENT_SUFFIX);
+            Path marker = pendingMarker(file);
+            ArchiveSegment segment;
+            try {
+                Files.createFile(marker);
+                segment = ArchiveSegment.write(file, orders);
+            } catch (IOException e) {
+                discard(file);
+                throw new UncheckedIOException(e);
+            }
+            publish(segment);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        try {
+                            Files.deleteIfExists(marker);
+                        } catch (IOException e) {
+                            // Startup finds the rows gone and keeps the segment anyway
+                            logger.warn("Could not remove archive marker {}: {}", marker, e.getMessage());
+                        }
+                    } else {
+                        unpublish(segment);
+                        discard(file);
+                    }
+                }
+            });
+
+            // Step 3: Remove the rows from the hot table
+            List<Integer> ids = orders.stream().map(OrderDto::getId).toList();
+            for (int start = 0; start < ids.size(); start += ID_CHUNK) {
+                repository.deleteAllByIds(ids.subList(start, Math.min(start + ID_CHUNK, ids.size())));
+            }
+            return orders.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    /** Whether any segment could hold rows for these filters; null bounds are open. */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end, String status, Integer customerId) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.mightMatch(start, end, status, customerId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code hot} merged with the matching archived rows, newest first. {@code hot} must already
+     * be in that order. Close the stream to release the segment files.
+     */
+    public Stream<OrderDto> withArchived(Iterator<OrderDto> hot, LocalDateTime start, LocalDateTime end,
+                                         String status, Integer customerId) {
+        List<Stream<OrderDto>> cold = new ArrayList<>();
+        try {
+            for (ArchiveSegment segment : segments) {
+                if (segment.mightMatch(start, end, status, customerId)) {
+                    cold.add(segment.rows(start, end, status, customerId));
+                }
+            }
+        } catch (IOException e) {
+            cold.forEach(Stream::close);
+            throw new UncheckedIOException(e);
+        }
+        if (cold.isEmpty()) {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(hot, Spliterator.ORDERED), false);
+        }
+
+        List<Iterator<OrderDto>> sources = new ArrayList<>(cold.size() + 1);
+        sources.add(hot);
+        cold.forEach(rows -> sources.add(rows.iterator()));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new NewestFirstMerge(sources),
+                        Spliterator.ORDERED), false)
+                .onClose(() -> cold.forEach(Stream::close));
+    }
+
+    public long count(LocalDateTime start, LocalDateTime end, String status, Integer customerId) {
+        long total = 0;
+        for (ArchiveSegment segment : segments) {
+            if (!segment.mightMatch(start, end, status, customerId)) {
+                continue;
+            }
+            // Archived rows are all DELIVERED, so a segment inside the range counts without inflating it
+            if (customerId == null && !segment.minDate().isBefore(start) && !segment.maxDate().isAfter(end)) {
+                total += segment.rowCount();
+                continue;
+            }
+            try (Stream<OrderDto> rows = segment.rows(start, end, status, customerId)) {
+                total += rows.count();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return total;
+    }
+
+    /** Every archived order of one customer, ordered by orderDate then id ascending. */
+    public List<OrderDto> customerRows(int customerId) {
+        List<OrderDto> rows = new ArrayList<>();
+        try (Stream<OrderDto> archived = withArchived(Collections.emptyIterator(), null, null, null, customerId)) {
+            archived.forEach(rows::add);
+        }
+        Collections.reverse(rows);
+        return rows;
+    }
+
+    /**
+     * Up to {@code limit} archived orders of one customer after the (orderDate, id) cursor and no
+     * later than {@code end}, ordered by orderDate then id ascending. Only segments overlapping
+     * that range are inflated, oldest first, stopping once the rest start after the last row kept.
+     * Null bounds are open.
+     */
+    public List<OrderDto> customerRowsAfter(int customerId, LocalDateTime afterDate, Integer afterId,
+                                            LocalDateTime end, int limit) {
+        Comparator<OrderDto> ascending = NewestFirstMerge.NEWEST_FIRST.reversed();
+        List<ArchiveSegment> candidates = segments.stream()
+                .filter(segment -> segment.mightMatch(afterDate, end, null, customerId))
+                .sorted(Comparator.comparing(ArchiveSegment::minDate))
+                .toList();
+        List<OrderDto> rows = new ArrayList<>();
+        for (ArchiveSegment segment : candidates) {
+            if (rows.size() >= limit && segment.minDate().isAfter(rows.get(limit - 1).getOrderDate())) {
+                break;
+            }
+            try (Stream<OrderDto> matching = segment.rows(afterDate, end, null, customerId)) {
+                matching.filter(o -> afterDate == null || o.getOrderDate().isAfter(afterDate)
+                                || (o.getOrderDate().isEqual(afterDate) && o.getId() > afterId))
+                        .forEach(rows::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows.sort(ascending);
+        }
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    public ArchiveStats stats() {
+        List<ArchiveSegment> current = segments;
+        long bytes = 0;
+        for (ArchiveSegment segment : current) {
+            try {
+                bytes += Files.size(segment.path());
+            } catch (IOException e) {
+                logger.warn("Could not size archive segment {}: {}", segment.path(), e.getMessage());
+            }
+        }
+        return ArchiveStats.builder()
+                .segments(current.size())
+                .rows(current.stream().mapToLong(ArchiveSegment::rowCount).sum())
+                .bytes(bytes)
+                .oldestOrder(current.stream().map(ArchiveSegment::minDate).min(Comparator.naturalOrder()).orElse(null))
+                .newestOrder(current.stream().map(ArchiveSegment::maxDate).max(Comparator.naturalOrder()).orElse(null))
+                .running(running.isLocked())
+                .build();
+    }
+
+    // A pending segment committed exactly when its rows are gone from the table
+    private boolean recover(Path file) {
+        List<Integer> ids;
+        try (Stream<OrderDto> rows = ArchiveSegment.open(file).rows(null, null, null, null)) {
+            ids = rows.map(OrderDto::getId).toList();
+        } catch (IOException | UncheckedIOException e) {
+            // The transaction commits only after the segment is on disk, so a torn file never committed
+            logger.warn("Discarding incomplete archive segment {}: {}", file, e.getMessage());
+            discard(file);
+            return false;
+        }
+        for (int start = 0; start < ids.size(); start += ID_CHUNK) {
+            if (repository.countByIds(ids.subList(start, Math.min(start + ID_CHUNK, ids.size()))) > 0) {
+                logger.warn("Discarding uncommitted archive segment {}", file);
+                discard(file);
+                return false;
+            }
+        }
+        logger.info("Recovered archive segment {}", file);
+        return true;
+    }
+
+    private synchronized void publish(ArchiveSegment segment) {
+        List<ArchiveSegment> next = new ArrayList<>(segments);
+        next.add(segment);
+        segments = List.copyOf(next);
+    }
+
+    private synchronized void unpublish(ArchiveSegment segment) {
+        List<ArchiveSegment> next = new ArrayList<>(segments);
+        next.remove(segment);
+        segments = List.copyOf(next);
+    }
+
+    private void discard(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(pendingMarker(file));
+        } catch (IOException e) {
+            logger.warn("Could not delete archive segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Path pendingMarker(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + PENDING_SUFFIX);
+    }
+}
@@ -0,0 +1,161 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.BatchOrderResult;
+import com.pksa.order_service.dto.CreateOrderDto;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.ProductDto;
+import com.pksa.order_service.entity.Order;
+import com.pksa.order_service.event.OrderChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk order ingestion. Each item is validated on its own, product ids are resolved once per
+ * distinct id, and valid orders are persisted in chunked transactions so Hibernate can send
+ * JDBC batches (see {@code hibernate.jdbc.batch_size} and the pooled {@code orders_seq}).
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderBatchService {
+    private final ProductCatalogClient productCatalog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Logger logger = LoggerFactory.getLogger(OrderBatchService.class);
+
+    @Value("${orders.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${orders.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    public List<BatchOrderResult> placeOrders(List<CreateOrderDto> dtos) {
+        if (dtos.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch too large: " + dtos.size() + " > " + maxBatchSize);
+        }
+        BatchOrderResult[] results = new BatchOrderResult[dtos.size()];
+
+        // Step 1: Validate each item independently
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateOrderDto dto = dtos.get(i);
+            if (dto == null) {
+                results[i] = BatchOrderResult.failed(i, "Order is null");
+                continue;
+            }
+            Set<ConstraintViolation<CreateOrderDto>> violations = validator.validate(dto);
+            if (!violations.isEmpty()) {
+                results[i] = BatchOrderResult.failed(i, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // Step 2: Resolve every distinct product id concurrently, once
+        Map<Integer, ProductLookup> products = resolveProducts(valid.stream()
+                .map(i -> dtos.get(i).getProductId())
+                .collect(Collectors.toSet()));
+
+        List<Integer> accepted = new ArrayList<>();
+        for (int i : valid) {
+            ProductLookup lookup = products.get(dtos.get(i).getProductId());
+            if (lookup.error() != null) {
+                results[i] = BatchOrderResult.failed(i, "Product lookup failed: " + lookup.error());
+            } else if (lookup.product() == null) {
+                results[i] = BatchOrderResult.failed(i, "Product with ID " + dtos.get(i).getProductId() + " not found!");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // Step 3: Insert in chunked transactions with JDBC batching
+        LocalDateTime now = LocalDateTime.now();
+        int placed = 0;
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                List<OrderDto> saved = insertChunk(chunk.stream()
+                        .map(i -> toEntity(dtos.get(i), products.get(dtos.get(i).getProductId()).product(), now))
+                        .toList());
+                for (int j = 0; j < chunk.size(); j++) {
+                    results[chunk.get(j)] = BatchOrderResult.ok(chunk.get(j), saved.get(j));
+                }
+                placed += saved.size();
+            } catch (RuntimeException e) {
+                logger.error("Batch chunk of {} orders failed: {}", chunk.size(), e.getMessage());
+                chunk.forEach(i -> results[i] = BatchOrderResult.failed(i, "Insert failed: " + e.getMessage()));
+            }
+        }
+        logger.info("Batch placed {} of {} orders", placed, dtos.size());
+        return Arrays.asList(results);
+    }
+
+    // Created events are published inside the chunk transaction, like single placements
+    private List<OrderDto> insertChunk(List<Order> orders) {
+        return transactionTemplate.execute(status -> {
+            List<OrderDto> saved = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                entityManager.persist(orders.get(i));
+                OrderDto dto = OrderService.toDto(orders.get(i));
+                eventPublisher.publishEvent(OrderChangedEvent.created(dto));
+                saved.add(dto);
+                if ((i + 1) % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return saved;
+        });
+    }
+
+    private Map<Integer, ProductLookup> resolveProducts(Set<Integer> productIds) {
+        Map<Integer, CompletableFuture<ProductDto>> lookups = new HashMap<>();
+        productIds.forEach(id -> lookups.put(id, productCatalog.getProductAsync(id)));
+
+        Map<Integer, ProductLookup> products = new HashMap<>();
+        lookups.forEach((id, lookup) -> {
+            try {
+                products.put(id, new ProductLookup(lookup.join(), null));
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                products.put(id, new ProductLookup(null, cause.getMessage()));
+            }
+        });
+        return products;
+    }
+
+    private record ProductLookup(ProductDto product, String error) {}
+
+    private Order toEntity(CreateOrderDto dto, ProductDto product, LocalDateTime orderDate) {
+        return Order.builder()
+                .productId(dto.getProductId())
+                .customerId(dto.getCustomerId())
+                .quantity(dto.getQuantity())
+                .orderDate(orderDate)
+                .status("NEW")
+                .unitPrice(product.getPrice())
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.pksa.order_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pksa.order_service.dto.OrderChangeDto;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.repository.OrderChangeRepository;
+import com.pksa.order_service.support.TransactionBuffer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Records every order write in {@code order_changes} and streams the delta after a watermark.
+ * Sequence values are not taken in commit order, so a reader going by seq alone could move past
+ * a change whose transaction had not committed yet. Each row therefore carries the id of the
+ * transaction that wrote it, and the feed only returns rows from transactions older than the
+ * oldest one still running, in (txId, seq) order. A long-running writer holds the feed back
+ * until it finishes; it can no longer make a reader miss its changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderChangeFeedService {
+    private static final String INSERT_CHANGE = """
+            insert into order_changes (seq, order_id, change_type, product_id, customer_id, quantity,
+                                       order_date, status, changed_at, tx_id)
+            values (nextval('order_changes_seq'), ?, ?, ?, ?, ?, ?, ?, clock_timestamp(),
+                    pg_current_xact_id()::text::bigint)
+            """;
+    private static final int[] INSERT_TYPES = {Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.INTEGER,
+            Types.INTEGER, Types.TIMESTAMP, Types.VARCHAR};
+
+    private final OrderChangeRepository changeRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionBuffer<OrderChangedEvent> pending = TransactionBuffer.beforeCommit(this::insertChanges);
+
+    @Value("${orders.changes.max-limit:100000}")
+    private int maxLimit;
+
+    // Runs inside the writer's transaction, so a change row exists iff the write committed
+    @EventListener
+    public void record(OrderChangedEvent event) {
+        pending.add(event);
+    }
+
+    // One batched insert per transaction; seq comes from nextval inside the statement
+    private void insertChanges(List<OrderChangedEvent> events) {
+        List<Object[]> rows = events.stream().map(event -> {
+            OrderDto order = event.order();
+            return new Object[] {order.getId(), event.type().name(), order.getProductId(), order.getCustomerId(),
+                    order.getQuantity(), order.getOrderDate() == null ? null : Timestamp.valueOf(order.getOrderDate()),
+                    order.getStatus()};
+        }).toList();
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows, INSERT_TYPES);
+    }
+
+    /** Writes changes committed after the one with seq {@code since} to {@code out}, one JSON object per line. */
+    public void streamChanges(long since, int limit, OutputStream out) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> {
+            long xmin = changeRepository.currentXmin();
+            long sinceTxId = since <= 0 ? 0 : changeRepository.findTxIdBySeq(since).orElse(0L);
+            try (Stream<OrderChangeDto> changes = changeRepository.streamChangesAfter(
+                    since, sinceTxId, xmin, Limit.of(Math.min(limit, maxLimit)))) {
+                Iterator<OrderChangeDto> it = changes.iterator();
+                while (it.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,288 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.HistoryCacheStats;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.event.OrderChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+
+/**
+ * In-process cache of each customer's stored order history (hot and archived rows), bounded by
+ * the total number of cached rows and evicted least recently used. Committed order writes are
+ * applied to the cached list in place rather than dropping it, so a customer who just ordered
+ * still reads from memory. With {@code orders.history.cache.redis.enabled} every local change is
+ * announced on a Redis channel and the other nodes drop their copy of that customer. Entries are
+ * reloaded once they are {@code orders.history.cache.ttl} old whatever was applied to them, which
+ * bounds how stale a node gets when it misses writes made elsewhere: without Redis, or while
+ * its subscriber is reconnecting.
+ * <p>
+ * A load that overlaps a write to the same customer is not cached: writes bump a generation
+ * counter for the customer's stripe, and the load only stores its result if the counter has not
+ * moved since it started.
+ */
+@Service
+public class OrderHistoryCacheService {
+    private static final String CHANNEL = "order-history:invalidate";
+    private static final int STRIPES = 1024;
+
+    private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer subscriber;
+    private final Logger logger = LoggerFactory.getLogger(OrderHistoryCacheService.class);
+
+    private final boolean enabled;
+    private final long maxRows;
+    private final long ttlMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LinkedHashMap<Integer, CachedHistory> local = new LinkedHashMap<>(16, 0.75f, true);
+    private long localRows;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writeThroughs = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong remoteInvalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public OrderHistoryCacheService(ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                                    @Value("${orders.history.cache.enabled:true}") boolean enabled,
+                                    @Value("${orders.history.cache.max-rows:500000}") long maxRows,
+                                    @Value("${orders.history.cache.ttl:1m}") Duration ttl,
+                                    @Value("${orders.history.cache.redis.enabled:false}") boolean redisEnabled) {
+        this.enabled = enabled;
+        this.maxRows = maxRows;
+        this.ttlMillis = ttl.toMillis();
+        if (enabled && redisEnabled) {
+            RedisConnectionFactory connectionFactory = redisConnectionFactory.getObject();
+            this.redis = new StringRedisTemplate(connectionFactory);
+            this.subscriber = createSubscriber(connectionFactory);
+        } else {
+            this.redis = null;
+            this.subscriber = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        if (subscriber != null) {
+            subscriber.destroy();
+        }
+    }
+
+    /** The cached history of {@code customerId}, loading it with {@code loader} on a miss. */
+    public List<OrderDto> get(int customerId, IntFunction<List<OrderDto>> loader) {
+        if (!enabled) {
+            return loader.apply(customerId);
+        }
+        synchronized (local) {
+            CachedHistory cached = local.get(customerId);
+            if (cached != null) {
+                if (System.currentTimeMillis() - cached.loadedAt() < ttlMillis) {
+                    hits.incrementAndGet();
+                    return cached.rows();
+                }
+                drop(customerId);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        long generation = generations.get(stripe(customerId));
+        long loadedAt = System.currentTimeMillis();
+        List<OrderDto> rows = List.copyOf(loader.apply(customerId));
+        synchronized (local) {
+            if (generations.get(stripe(customerId)) == generation && rows.size() <= maxRows) {
+                put(customerId, new CachedHistory(rows, loadedAt));
+            }
+        }
+        return rows;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!enabled || event.order().getCustomerId() == null) {
+            return;
+        }
+        int customerId = event.order().getCustomerId();
+        synchronized (local) {
+            generations.incrementAndGet(stripe(customerId));
+            CachedHistory cached = local.get(customerId);
+            if (cached != null) {
+                List<OrderDto> updated = apply(cached.rows(), event);
+                if (updated == null) {
+                    drop(customerId);
+                    invalidations.incrementAndGet();
+                } else {
+                    // Keeps the load time: the TTL bounds staleness from writes this node never saw
+                    put(customerId, new CachedHistory(updated, cached.loadedAt()));
+                    writeThroughs.incrementAndGet();
+                }
+            }
+        }
+        announce(customerId);
+    }
+
+    public HistoryCacheStats stats() {
+        long lookups = hits.get() + misses.get();
+        int customers;
+        long rows;
+        synchronized (local) {
+            customers = local.size();
+            rows = localRows;
+        }
+        return HistoryCacheStats.builder()
+                .hits(hits.get())
+                .misses(misses.get())
+                .writeThroughs(writeThroughs.get())
+                .invalidations(invalidations.get())
+                .remoteInvalidations(remoteInvalidations.get())
+                .evictions(evictions.get())
+                .expirations(expirations.get())
+                .customers(customers)
+                .rows(rows)
+                .hitRate(lookups == 0 ? 0.0 : (double) hits.get() / lookups)
+                .build();
+    }
+
+    public void clear() {
+        synchronized (local) {
+            for (int i = 0; i < STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            local.clear();
+            localRows = 0;
+        }
+    }
+
+    // Returns the list with the change applied, or null when the entry should be dropped instead
+    private static List<OrderDto> apply(List<OrderDto> cached, OrderChangedEvent event) {
+        OrderDto order = event.order();
+        int index = indexOf(cached, order.getId());
+        switch (event.type()) {
+            case CREATED -> {
+                if (index >= 0) {
+                    return cached;
+                }
+                List<OrderDto> updated = new ArrayList<>(cached.size() + 1);
+                updated.addAll(cached);
+                updated.add(order);
+                return Collections.unmodifiableList(updated);
+            }
+            case STATUS_UPDATED -> {
+                if (index < 0) {
+                    return null;
+                }
+                // Status only moves forward, so an older event arriving late is ignored
+                if (rank(cached.get(index)) >= rank(order)) {
+                    return cached;
+                }
+                List<OrderDto> updated = new ArrayList<>(cached);
+                updated.set(index, order);
+                return Collections.unmodifiableList(updated);
+            }
+            default -> {
+                // Dropped rather than edited so a late create for the same order cannot bring it back
+                return null;
+            }
+        }
+    }
+
+    private static int indexOf(List<OrderDto> rows, Integer id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int rank(OrderDto order) {
+        return order.getStatus() == null ? 0 : OrderStatus.parse(order.getStatus()).code();
+    }
+
+    // Callers hold the lock on local
+    private void put(int customerId, CachedHistory history) {
+        CachedHistory previous = local.put(customerId, history);
+        if (previous != null) {
+            localRows -= previous.rows().size();
+        }
+        localRows += history.rows().size();
+
+        Iterator<CachedHistory> it = local.values().iterator();
+        while (localRows > maxRows && it.hasNext()) {
+            localRows -= it.next().rows().size();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void drop(int customerId) {
+        CachedHistory previous = local.remove(customerId);
+        if (previous != null) {
+            localRows -= previous.rows().size();
+        }
+    }
+
+    private void announce(int customerId) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.convertAndSend(CHANNEL, nodeId + ":" + customerId);
+        } catch (RuntimeException e) {
+            logger.warn("Order history invalidation for customer {} was not sent: {}", customerId, e.getMessage());
+        }
+    }
+
+    private void onRemoteChange(String message) {
+        int sep = message.lastIndexOf(':');
+        if (sep < 0 || message.substring(0, sep).equals(nodeId)) {
+            return;
+        }
+        int customerId = Integer.parseInt(message.substring(sep + 1));
+        synchronized (local) {
+            generations.incrementAndGet(stripe(customerId));
+            drop(customerId);
+        }
+        remoteInvalidations.incrementAndGet();
+    }
+
+    private RedisMessageListenerContainer createSubscriber(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                onRemoteChange(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring malformed order history invalidation: {}", e.getMessage());
+            }
+        }, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+
+    private static int stripe(int customerId) {
+        return Math.floorMod(customerId, STRIPES);
+    }
+
+    private record CachedHistory(List<OrderDto> rows, long loadedAt) {}
+}
@@ -0,0 +1,385 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.CreateOrderDto;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.ProductDto;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.exception.ServiceBusyException;
+import com.pksa.order_service.journal.OrderJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind placement for burst traffic, enabled by {@code orders.journal.enabled}. An order
+ * gets an id from a block of {@code orders_seq} values, is appended to the local
+ * {@link OrderJournal} and acknowledged once it is on disk. A background thread then inserts
+ * journaled orders in large batches and publishes their created events in the same transaction.
+ * The listeners buffer those events until the batch commits, so a batch costs the order insert,
+ * one batched change-feed insert, one batched rollup upsert per distinct (day, status, product)
+ * and (day, customer), and at most one report cache invalidation per duration. The order history
+ * cache and metrics are still updated per order, in memory.
+ * <p>
+ * Orders not yet in the table stay in an in-memory index that the read paths consult, so a
+ * client sees its order straight away. Once that index reaches {@code orders.journal.max-lag},
+ * placements are refused until the writer catches up. Each batch records how far the journal is
+ * applied in {@code order_journal_positions}, in the same transaction, and on startup every entry
+ * after that position is replayed, so nothing committed is inserted twice.
+ * <p>
+ * A batch that keeps failing is retried row by row, each order in its own transaction. An order
+ * the database rejects outright is logged and skipped rather than holding up the ones behind it.
+ */
+@Service
+public class OrderJournalService {
+    private static final String INSERT_BATCH = """
+            insert into orders (id, product_id, customer_id, quantity, order_date, status, unit_price)
+            select t.id, t.product_id, t.customer_id, t.quantity, t.order_date, ?, t.unit_price
+            from unnest(?::integer[], ?::integer[], ?::integer[], ?::integer[], ?::timestamp[], ?::float8[])
+                 as t (id, product_id, customer_id, quantity, order_date, unit_price)
+            on conflict (id) do nothing
+            returning id
+            """;
+    private static final String SAVE_POSITION = """
+            insert into order_journal_positions (journal_id, segment_no, segment_offset)
+            values (?, ?, ?)
+            on conflict (journal_id) do update
+            set segment_no = excluded.segment_no, segment_offset = excluded.segment_offset
+            """;
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(5);
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Logger logger = LoggerFactory.getLogger(OrderJournalService.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final DataSize segmentSize;
+    private final int batchSize;
+    private final int maxLag;
+    private final int idBlocks;
+
+    private String journalId;
+    private OrderJournal journal;
+    private final Map<Integer, OrderDto> pending = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<OrderJournal.Entry> undrained = new LinkedBlockingQueue<>();
+    private final ArrayDeque<Integer> ids = new ArrayDeque<>();
+    private int idIncrement;
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderJournalService(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${orders.journal.enabled:false}") boolean enabled,
+                               @Value("${orders.journal.dir:data/order-journal}") Path directory,
+                               @Value("${orders.journal.segment-size:64MB}") DataSize segmentSize,
+                               @Value("${orders.journal.batch-size:1000}") int batchSize,
+                               @Value("${orders.journal.max-lag:50000}") int maxLag,
+                               @Value("${orders.journal.id-blocks:20}") int idBlocks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.batchSize = batchSize;
+        this.maxLag = maxLag;
+        this.idBlocks = idBlocks;
+        Gauge.builder("orders.journal.lag", pending, Map::size)
+                .description("Journaled orders not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        idIncrement = jdbcTemplate.queryForObject(
+                "select increment_by from pg_sequences where sequencename = 'orders_seq'", Integer.class);
+
+        journalId = OrderJournal.id(directory);
+        OrderJournal.Position applied = jdbcTemplate.query(
+                "select segment_no, segment_offset from order_journal_positions where journal_id = ?",
+                (rs, row) -> new OrderJournal.Position(rs.getLong(1), rs.getLong(2)), journalId)
+                .stream().findFirst().orElse(new OrderJournal.Position(0, 0));
+        OrderJournal.Opened opened = OrderJournal.open(directory, segmentSize.toBytes(), applied, this::onDurable);
+        journal = opened.journal();
+        onDurable(opened.unapplied());
+        if (!opened.unapplied().isEmpty()) {
+            logger.info("Replaying {} journaled orders", opened.unapplied().size());
+        }
+
+        running = true;
+        writer = new CustomizableThreadFactory("order-journal-").newThread(this::writeLoop);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        // Whatever the writer cannot finish in time is replayed on the next start
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Journals a new order and returns it once durable; it reaches the table shortly after. */
+    public OrderDto append(CreateOrderDto dto, ProductDto product) {
+        if (pending.size() >= maxLag) {
+            throw new ServiceBusyException("Order journal is " + pending.size() + " orders behind, try again later");
+        }
+        OrderDto order = OrderDto.builder()
+                .id(nextId())
+                .productId(dto.getProductId())
+                .customerId(dto.getCustomerId())
+                .quantity(dto.getQuantity())
+                .orderDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .status(OrderStatus.NEW.name())
+                .unitPrice(product.getPrice())
+                .build();
+        try {
+            journal.append(order);
+        } catch (IOException e) {
+            logger.error("Order journal append failed: {}", e.getMessage());
+            throw new ServiceBusyException("Order journal unavailable, try again later");
+        }
+        return order;
+    }
+
+    public Optional<OrderDto> pendingOrder(int id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    public List<OrderDto> pendingOrders() {
+        return List.copyOf(pending.values());
+    }
+
+    public List<OrderDto> pendingOrders(int customerId) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        return pending.values().stream()
+                .filter(order -> order.getCustomerId() == customerId)
+                .collect(Collectors.toList());
+    }
+
+    // Runs on the appending thread that led the flush, in journal order
+    private void onDurable(List<OrderJournal.Entry> entries) {
+        entries.forEach(entry -> pending.put(entry.order().getId(), entry.order()));
+        undrained.addAll(entries);
+    }
+
+    private void writeLoop() {
+        while (running || !undrained.isEmpty()) {
+            List<OrderJournal.Entry> batch = new ArrayList<>(batchSize);
+            try {
+                OrderJournal.Entry first = undrained.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            undrained.drainTo(batch, batchSize - 1);
+
+            if (!writeWithRetries(batch, MAX_BATCH_ATTEMPTS)) {
+                for (OrderJournal.Entry entry : batch) {
+                    if (!writeRow(entry)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    // Returns false once the attempts are used up, or when stopping
+    private boolean writeWithRetries(List<OrderJournal.Entry> batch, int attempts) {
+        long backoff = 100;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= attempts || !running) {
+                    logger.error("Writing {} journaled orders failed after {} attempts: {}",
+                            batch.size(), attempt, e.getMessage());
+                    return false;
+                }
+                logger.error("Writing {} journaled orders failed, retrying in {}ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    return false;
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    /**
+     * Writes one order on its own. Rejected data is skipped, with the journal position moved past
+     * it; any other failure, such as the database being down, is retried until stopping. Returns
+     * false when stopping, leaving the order to be replayed on the next start.
+     */
+    private boolean writeRow(OrderJournal.Entry entry) {
+        long backoff = 100;
+        while (true) {
+            try {
+                write(List.of(entry));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Skipping journaled order {} the database rejects: {}: {}",
+                        entry.order().getId(), entry.order(), e.getMessage());
+                if (skip(entry)) {
+                    return true;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Writing journaled order {} failed, retrying in {}ms: {}",
+                        entry.order().getId(), backoff, e.getMessage());
+            }
+            if (!running || !sleep(backoff)) {
+                return false;
+            }
+            backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF.toMillis());
+        }
+    }
+
+    private boolean skip(OrderJournal.Entry entry) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> savePosition(entry.end()));
+        } catch (RuntimeException e) {
+            logger.error("Moving the order journal past order {} failed: {}", entry.order().getId(), e.getMessage());
+            return false;
+        }
+        applied(List.of(entry));
+        return true;
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void write(List<OrderJournal.Entry> batch) {
+        // Step 1: One INSERT for the whole batch, committed together with the journal position
+        transactionTemplate.executeWithoutResult(tx -> {
+            Set<Integer> inserted = new HashSet<>(jdbcTemplate.query(
+                    connection -> insertStatement(connection, batch), (rs, row) -> rs.getInt(1)));
+            for (OrderJournal.Entry entry : batch) {
+                if (inserted.contains(entry.order().getId())) {
+                    eventPublisher.publishEvent(OrderChangedEvent.created(entry.order()));
+                }
+            }
+            savePosition(batch.get(batch.size() - 1).end());
+        });
+
+        // Step 2: Stop serving the orders from memory
+        applied(batch);
+    }
+
+    private void savePosition(OrderJournal.Position position) {
+        jdbcTemplate.update(SAVE_POSITION, journalId, position.segment(), position.offset());
+    }
+
+    private void applied(List<OrderJournal.Entry> entries) {
+        try {
+            journal.release(entries.get(entries.size() - 1).end());
+        } catch (IOException e) {
+            // Only disk space: the position is in the database, and the next batch retries the cleanup
+            logger.warn("Releasing order journal segments failed: {}", e.getMessage());
+        }
+        entries.forEach(entry -> pending.remove(entry.order().getId()));
+    }
+
+    private PreparedStatement insertStatement(Connection connection, List<OrderJournal.Entry> batch)
+            throws SQLException {
+        int size = batch.size();
+        Integer[] id = new Integer[size];
+        Integer[] productId = new Integer[size];
+        Integer[] customerId = new Integer[size];
+        Integer[] quantity = new Integer[size];
+        Timestamp[] orderDate = new Timestamp[size];
+        Double[] unitPrice = new Double[size];
+        for (int i = 0; i < size; i++) {
+            OrderDto order = batch.get(i).order();
+            id[i] = order.getId();
+            productId[i] = order.getProductId();
+            customerId[i] = order.getCustomerId();
+            quantity[i] = order.getQuantity();
+            orderDate[i] = Timestamp.valueOf(order.getOrderDate());
+            unitPrice[i] = order.getUnitPrice();
+        }
+        PreparedStatement statement = connection.prepareStatement(INSERT_BATCH);
+        statement.setShort(1, OrderStatus.NEW.code());
+        Array[] arrays = {
+                connection.createArrayOf("integer", id),
+                connection.createArrayOf("integer", productId),
+                connection.createArrayOf("integer", customerId),
+                connection.createArrayOf("integer", quantity),
+                connection.createArrayOf("timestamp", orderDate),
+                connection.createArrayOf("float8", unitPrice)
+        };
+        for (int i = 0; i < arrays.length; i++) {
+            statement.setArray(i + 2, arrays[i]);
+        }
+        return statement;
+    }
+
+    // orders_seq hands out blocks of idIncrement ids ending at each value, as Hibernate's pooled optimizer does
+    private synchronized int nextId() {
+        if (ids.isEmpty()) {
+            List<Long> highs = jdbcTemplate.queryForList(
+                    "select nextval('orders_seq') from generate_series(1, ?)", Long.class, idBlocks);
+            for (long high : highs) {
+                for (long id = Math.max(1, high - idIncrement + 1); id <= high; id++) {
+                    ids.add((int) id);
+                }
+            }
+        }
+        return ids.removeFirst();
+    }
+}
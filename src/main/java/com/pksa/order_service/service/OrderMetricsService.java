@@ -0,0 +1,79 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.OrderMetricsDto;
+import com.pksa.order_service.dto.ProductVolumeDto;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.metrics.SlidingWindowOrderMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Live order figures over sliding windows of up to an hour, served from memory.
+ * Only committed writes are counted; distinct customers and top products are sketch estimates.
+ */
+@Service
+public class OrderMetricsService {
+    private final SlidingWindowOrderMetrics metrics = new SlidingWindowOrderMetrics(Clock.systemUTC());
+
+    @Value("${orders.metrics.top-k:10}")
+    private int topK;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDto order = event.order();
+        switch (event.type()) {
+            case CREATED -> metrics.recordCreated(
+                    order.getCustomerId() != null ? order.getCustomerId() : 0,
+                    order.getProductId() != null ? order.getProductId() : 0,
+                    order.getQuantity() != null ? order.getQuantity() : 0,
+                    order.getStatus());
+            case STATUS_UPDATED -> metrics.recordStatusChange(order.getStatus());
+            case DELETED -> metrics.recordDeleted();
+        }
+    }
+
+    /** @param window e.g. {@code 1m}, {@code 15m}, {@code 1h}; whole minutes up to an hour */
+    public OrderMetricsDto getMetrics(String window) {
+        int minutes = parseWindow(window);
+        SlidingWindowOrderMetrics.Snapshot snapshot = metrics.snapshot(minutes, topK);
+
+        Map<String, Double> perMinuteByStatus = new LinkedHashMap<>();
+        snapshot.eventsByStatus().forEach((status, count) -> perMinuteByStatus.put(status, (double) count / minutes));
+
+        return OrderMetricsDto.builder()
+                .window(window)
+                .ordersPlaced(snapshot.created())
+                .ordersPerMinute((double) snapshot.created() / minutes)
+                .quantity(snapshot.quantity())
+                .ordersDeleted(snapshot.deleted())
+                .perMinuteByStatus(perMinuteByStatus)
+                .distinctCustomers(snapshot.distinctCustomers())
+                .topProducts(snapshot.topProducts().stream()
+                        .map(p -> new ProductVolumeDto(p.productId(), p.quantity()))
+                        .toList())
+                .build();
+    }
+
+    private int parseWindow(String window) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        long minutes = duration.toMinutes();
+        if (minutes < 1 || minutes > SlidingWindowOrderMetrics.MAX_WINDOW_MINUTES || duration.toSecondsPart() != 0) {
+            throw new IllegalArgumentException("Window must be whole minutes between 1m and "
+                    + SlidingWindowOrderMetrics.MAX_WINDOW_MINUTES + "m");
+        }
+        return (int) minutes;
+    }
+}
@@ -0,0 +1,290 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.OrderSummaryDto;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.repository.OrderRollupRepository;
+import com.pksa.order_service.support.TransactionBuffer;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps daily rollups in step with order writes and answers summaries from them,
+ * in time proportional to the number of days rather than the number of orders.
+ * <p>
+ * A transaction's order events are summed per rollup row and written just before it commits:
+ * one batched upsert per distinct (day, status, product) and one per new (day, customer), in key
+ * order so concurrent writers lock rows in the same order. The row locks are held only for the
+ * commit rather than for the whole writing transaction.
+ * <p>
+ * Deleting a customer's last order of a day also removes that day's customer row, unless the
+ * archive still holds one of their orders for it. A create for the same customer and day
+ * committing concurrently with that delete can be missed; {@link #rebuild} corrects it.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderRollupService {
+    // orders.status holds OrderStatus codes; the rollups keep status names
+    private static final String REBUILD_ROLLUPS = """
+            insert into order_daily_rollups (day, status, product_id, order_count, quantity, revenue)
+            select cast(o.order_date as date), %1$s, o.product_id, count(*),
+                   coalesce(sum(o.quantity), 0), coalesce(sum(o.quantity * coalesce(o.unit_price, 0)), 0)
+            from orders o
+            where o.order_date >= ? and o.order_date < ? and o.product_id is not null
+            group by cast(o.order_date as date), %1$s, o.product_id
+            """.formatted(Arrays.stream(OrderStatus.values())
+            .map(s -> "when " + s.code() + " then '" + s.name() + "'")
+            .collect(Collectors.joining(" ", "case o.status ", " else '' end")));
+
+    private final OrderRollupRepository rollupRepository;
+    private final AdminReportService adminReportService;
+    private final OrderArchiveService archiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionBuffer<OrderChangedEvent> pending = TransactionBuffer.beforeCommit(this::applyEvents);
+    private final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+
+    // Runs inside the writer's transaction, like the change feed
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        pending.add(event);
+    }
+
+    /**
+     * Recomputes rollups for [from, to] from the orders table and the archive. Locking the rollup
+     * tables makes concurrent writers wait, so their deltas land on top of the rebuilt rows.
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        rollupRepository.lockRollupTables();
+        rollupRepository.deleteRollups(from, to);
+        rollupRepository.deleteCustomers(from, to);
+        int rows = jdbcTemplate.update(REBUILD_ROLLUPS, Timestamp.valueOf(from.atStartOfDay()),
+                Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        rollupRepository.rebuildCustomers(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        rows += addArchived(from, to);
+        logger.info("Rebuilt {} rollup rows for {} to {}", rows, from, to);
+        return rows;
+    }
+
+    public OrderSummaryDto summarize(String duration) {
+        return summarize(adminReportService.calculateStartDate(duration).toLocalDate(), LocalDate.now());
+    }
+
+    @Transactional(readOnly = true)
+    public OrderSummaryDto summarize(LocalDate from, LocalDate to) {
+        List<Object[]> rows = rollupRepository.sumByStatus(from, to);
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long orders = 0;
+        long quantity = 0;
+        double revenue = 0;
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            if (count == 0) {
+                continue;
+            }
+            byStatus.put((String) row[0], count);
+            orders += count;
+            quantity += ((Number) row[2]).longValue();
+            revenue += ((Number) row[3]).doubleValue();
+        }
+
+        return OrderSummaryDto.builder()
+                .from(from)
+                .to(to)
+                .totalOrders(orders)
+                .totalQuantity(quantity)
+                .totalRevenue(revenue)
+                .uniqueCustomers(rollupRepository.countDistinctCustomers(from, to))
+                .ordersByStatus(byStatus)
+                .build();
+    }
+
+    // Archived orders are summed per rollup row in memory, then applied as one delta each
+    private int addArchived(LocalDate from, LocalDate to) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(RollupKey.ORDER);
+        Set<DailyCustomer> customers = new TreeSet<>(DailyCustomer.ORDER);
+        try (Stream<OrderDto> orders = archiveService.withArchived(Collections.emptyIterator(),
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay().minusNanos(1), null, null)) {
+            orders.forEach(order -> {
+                add(deltas, order, 1);
+                DailyCustomer customer = DailyCustomer.of(order);
+                if (customer != null) {
+                    customers.add(customer);
+                }
+            });
+        }
+        writeDeltas(deltas);
+        addCustomers(customers);
+        return deltas.size();
+    }
+
+    // Flushed once per writing transaction, just before it commits
+    private void applyEvents(List<OrderChangedEvent> events) {
+        Map<RollupKey, Delta> deltas = new TreeMap<>(RollupKey.ORDER);
+        Set<DailyCustomer> added = new TreeSet<>(DailyCustomer.ORDER);
+        Map<DailyCustomer, List<Integer>> removed = new TreeMap<>(DailyCustomer.ORDER);
+        for (OrderChangedEvent event : events) {
+            switch (event.type()) {
+                case CREATED -> {
+                    add(deltas, event.current(), 1);
+                    DailyCustomer customer = DailyCustomer.of(event.current());
+                    if (customer != null) {
+                        added.add(customer);
+                    }
+                }
+                case STATUS_UPDATED -> {
+                    add(deltas, event.previous(), -1);
+                    add(deltas, event.current(), 1);
+                }
+                case DELETED -> {
+                    add(deltas, event.previous(), -1);
+                    DailyCustomer customer = DailyCustomer.of(event.previous());
+                    if (customer != null) {
+                        removed.computeIfAbsent(customer, c -> new ArrayList<>()).add(event.previous().getId());
+                    }
+                }
+            }
+        }
+        deltas.values().removeIf(Delta::isEmpty);
+        removed.keySet().removeAll(added);
+
+        writeDeltas(deltas);
+        addCustomers(added);
+        removeCustomers(removed);
+    }
+
+    private void writeDeltas(Map<RollupKey, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rows.add(new Object[] {Date.valueOf(key.day()), key.status(),
+                key.productId(), delta.orders, delta.quantity, delta.revenue}));
+        jdbcTemplate.batchUpdate("""
+                insert into order_daily_rollups (day, status, product_id, order_count, quantity, revenue)
+                values (?, ?, ?, ?, ?, ?)
+                on conflict (day, status, product_id) do update set
+                    order_count = order_daily_rollups.order_count + excluded.order_count,
+                    quantity = order_daily_rollups.quantity + excluded.quantity,
+                    revenue = order_daily_rollups.revenue + excluded.revenue
+                """, rows, new int[] {Types.DATE, Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.BIGINT,
+                Types.DOUBLE});
+    }
+
+    private void addCustomers(Set<DailyCustomer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = customers.stream()
+                .map(c -> new Object[] {Date.valueOf(c.day()), c.customerId()})
+                .toList();
+        jdbcTemplate.batchUpdate("""
+                insert into order_daily_customers (day, customer_id) values (?, ?)
+                on conflict do nothing
+                """, rows, new int[] {Types.DATE, Types.INTEGER});
+    }
+
+    // The deleted rows are not flushed yet when this runs, so their ids are excluded explicitly
+    private void removeCustomers(Map<DailyCustomer, List<Integer>> removed) {
+        List<Map.Entry<DailyCustomer, List<Integer>>> rows = removed.entrySet().stream()
+                .filter(e -> archiveService.count(e.getKey().day().atStartOfDay(),
+                        e.getKey().day().plusDays(1).atStartOfDay().minusNanos(1), null, e.getKey().customerId()) == 0)
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("""
+                delete from order_daily_customers c
+                where c.day = ? and c.customer_id = ?
+                  and not exists (select 1 from orders o
+                                  where o.customer_id = c.customer_id and o.order_date >= ? and o.order_date < ?
+                                    and o.id <> all (?))
+                """, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DailyCustomer customer = rows.get(i).getKey();
+                ps.setDate(1, Date.valueOf(customer.day()));
+                ps.setInt(2, customer.customerId());
+                ps.setTimestamp(3, Timestamp.valueOf(customer.day().atStartOfDay()));
+                ps.setTimestamp(4, Timestamp.valueOf(customer.day().plusDays(1).atStartOfDay()));
+                ps.setArray(5, ps.getConnection().createArrayOf("integer", rows.get(i).getValue().toArray()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private static void add(Map<RollupKey, Delta> deltas, OrderDto order, int sign) {
+        if (order == null || order.getOrderDate() == null || order.getProductId() == null) {
+            return;
+        }
+        long quantity = order.getQuantity() == null ? 0 : order.getQuantity();
+        RollupKey key = new RollupKey(order.getOrderDate().toLocalDate(),
+                order.getStatus() == null ? "" : order.getStatus(), order.getProductId());
+        Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+        delta.orders += sign;
+        delta.quantity += sign * quantity;
+        delta.revenue += sign * quantity * (order.getUnitPrice() == null ? 0 : order.getUnitPrice());
+    }
+
+    private record RollupKey(LocalDate day, String status, Integer productId) {
+        static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::day)
+                .thenComparing(RollupKey::status)
+                .thenComparing(RollupKey::productId);
+    }
+
+    private record DailyCustomer(LocalDate day, Integer customerId) {
+        static final Comparator<DailyCustomer> ORDER = Comparator.comparing(DailyCustomer::day)
+                .thenComparing(DailyCustomer::customerId);
+
+        static DailyCustomer of(OrderDto order) {
+            if (order == null || order.getOrderDate() == null || order.getCustomerId() == null) {
+                return null;
+            }
+            return new DailyCustomer(order.getOrderDate().toLocalDate(), order.getCustomerId());
+        }
+    }
+
+    private static final class Delta {
+        long orders;
+        long quantity;
+        double revenue;
+
+        boolean isEmpty() {
+            return orders == 0 && quantity == 0 && revenue == 0;
+        }
+    }
+}
@@ -1,59 +1,125 @@
 package com.pksa.order_service.service;
 
+import com.pksa.order_service.archive.NewestFirstMerge;
 import com.pksa.order_service.dto.*;
 import com.pksa.order_service.entity.Order;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.event.OrderChangedEvent;
 import com.pksa.order_service.repository.OrderRepository;
+import com.pksa.order_service.exception.InvalidStatusTransitionException;
 import com.pksa.order_service.exception.OrderNotFoundException;
+import com.pksa.order_service.exception.ServiceBusyException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
     private final OrderRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCatalogClient productCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final OrderArchiveService archiveService;
+    private final OrderJournalService journalService;
+    private final OrderHistoryCacheService historyCache;
     private final Logger logger = LoggerFactory.getLogger(OrderService.class);
-    
-    private final WebClient webClient = WebClient.create("http://localhost:8081");
+
+    @Value("${orders.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${orders.page.max-size:500}")
+    private int maxPageSize;
 
     public List<OrderDto> getAll() {
-        return repository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+        return withPending(repository.findAllRows(), journalService.pendingOrders());
+    }
+
+    public OrderPage getPage(String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        Cursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<OrderDto> hot = after == null
+                ? repository.findFirstPage(page)
+                : repository.findPageAfter(after.orderDate(), after.id(), page);
+        return toPage(mergePage(hot, journalService.pendingOrders(), after, limit + 1), limit);
+    }
+
+    public OrderPage getCustomerPage(int customerId, String cursor, Integer size) {
+        int limit = pageSize(size);
+        PageRequest page = PageRequest.of(0, limit + 1);
+        Cursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<OrderDto> hot = after == null
+                ? repository.findCustomerFirstPage(customerId, page)
+                : repository.findCustomerPageAfter(customerId, after.orderDate(), after.id(), page);
+        // Archived rows can only reach this page if they fall between the cursor and the last hot row of a full page
+        LocalDateTime until = hot.size() > limit ? hot.get(hot.size() - 1).getOrderDate() : null;
+        List<OrderDto> extra = new ArrayList<>(archiveService.customerRowsAfter(customerId,
+                after == null ? null : after.orderDate(), after == null ? null : after.id(), until, limit + 1));
+        extra.addAll(journalService.pendingOrders(customerId));
+        return toPage(mergePage(hot, extra, after, limit + 1), limit);
+    }
+
+    // Archived and journaled rows past the cursor are merged into the page in the same (orderDate, id) order
+    private static List<OrderDto> mergePage(List<OrderDto> hot, List<OrderDto> extra, Cursor after, int count) {
+        if (extra.isEmpty()) {
+            return hot;
+        }
+        List<OrderDto> rows = withPending(hot, extra.stream()
+                .filter(o -> after == null || o.getOrderDate().isAfter(after.orderDate())
+                        || (o.getOrderDate().isEqual(after.orderDate()) && o.getId() > after.id()))
+                .collect(Collectors.toList()));
+        rows.sort(NewestFirstMerge.NEWEST_FIRST.reversed());
+        return rows.size() > count ? rows.subList(0, count) : rows;
+    }
+
+    // A journaled order can briefly be both pending and committed; the committed row wins
+    private static List<OrderDto> withPending(List<OrderDto> rows, List<OrderDto> pending) {
+        if (pending.isEmpty()) {
+            return rows;
+        }
+        Set<Integer> ids = rows.stream().map(OrderDto::getId).collect(Collectors.toSet());
+        List<OrderDto> merged = new ArrayList<>(rows);
+        pending.stream().filter(o -> !ids.contains(o.getId())).forEach(merged::add);
+        return merged;
     }
 
     public OrderDto getById(int id) {
-        Order order = repository.findById(id)
+        return repository.findRowById(id)
+            .or(() -> journalService.pendingOrder(id))
             .orElseThrow(() -> new OrderNotFoundException("Order not found"));
-        return toDto(order);
     }
 
     public OrderDto placeOrder(CreateOrderDto dto) {
+        return Observation.createNotStarted("orders.place", observationRegistry)
+                .observe(() -> placeOrderObserved(dto));
+    }
+
+    private OrderDto placeOrderObserved(CreateOrderDto dto) {
         try {
-            ProductDto product = webClient.get()
-                .uri("/products/" + dto.getProductId())  
-                .retrieve()
-                .bodyToMono(ProductDto.class)  
-                .block();
+            ProductDto product = Observation.createNotStarted("orders.product.lookup", observationRegistry)
+                    .observe(() -> productCatalog.getProduct(dto.getProductId()));
 
             if (product == null) {
                 throw new RuntimeException("Product with ID " + dto.getProductId() + " not found!");
             }
 
-            Order order = Order.builder()
-                    .productId(dto.getProductId())
-                    .customerId(dto.getCustomerId())
-                    .quantity(dto.getQuantity())
-                    .orderDate(LocalDateTime.now())
-                    .status("NEW")
-                    .build();
-            
-            order = repository.save(order);
-            logger.info("Order placed: {} for Product: {}", order.getId(), product.getName());
-            return toDto(order);
+            return saveNewOrder(dto, product);
             
         } catch (Exception e) {
             logger.error("Failed to place order for product {}: {}", dto.getProductId(), e.getMessage());
@@ -61,24 +127,149 @@ public class OrderService {
         }
     }
 
+    OrderDto saveNewOrder(CreateOrderDto dto, ProductDto product) {
+        if (journalService.isEnabled()) {
+            OrderDto journaled = journalService.append(dto, product);
+            logger.info("Order journaled: {} for Product: {}", journaled.getId(), product.getName());
+            return journaled;
+        }
+
+        Order order = Order.builder()
+                .productId(dto.getProductId())
+                .customerId(dto.getCustomerId())
+                .quantity(dto.getQuantity())
+                .orderDate(LocalDateTime.now())
+                .status("NEW")
+                .unitPrice(product.getPrice())
+                .build();
+
+        // Events are published inside the transaction so the change feed commits with the order
+        OrderDto placed = Observation.createNotStarted("orders.db.save", observationRegistry)
+                .observe(() -> transactionTemplate.execute(status -> {
+                    OrderDto saved = toDto(repository.save(order));
+                    eventPublisher.publishEvent(OrderChangedEvent.created(saved));
+                    return saved;
+                }));
+        logger.info("Order placed: {} for Product: {}", placed.getId(), product.getName());
+        return placed;
+    }
+
+    // Journaled orders are merged on every read, so the cache only ever holds stored rows
     public List<OrderDto> getOrdersByCustomer(int customerId) {
-        return repository.findByCustomerId(customerId)
-                .stream().map(this::toDto).collect(Collectors.toList());
+        return withPending(historyCache.get(customerId, this::loadHistory), journalService.pendingOrders(customerId));
+    }
+
+    // An order being archived can briefly be in both tiers; the table row wins, as in withPending
+    private List<OrderDto> loadHistory(int customerId) {
+        List<OrderDto> archived = archiveService.customerRows(customerId);
+        List<OrderDto> hot = repository.findCustomerRows(customerId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Integer> ids = hot.stream().map(OrderDto::getId).collect(Collectors.toSet());
+        List<OrderDto> rows = new ArrayList<>(archived.size() + hot.size());
+        archived.stream().filter(o -> !ids.contains(o.getId())).forEach(rows::add);
+        rows.addAll(hot);
+        return rows;
     }
 
+    // Archived orders are read-only: like an unknown id, deleting one is a no-op
     public void delete(int id) {
-        repository.deleteById(id);
+        requireWritten(id);
+        transactionTemplate.executeWithoutResult(status ->
+                repository.findById(id).ifPresent(order -> {
+                    repository.delete(order);
+                    eventPublisher.publishEvent(OrderChangedEvent.deleted(toDto(order)));
+                }));
         logger.warn("Order deleted: {}", id);
     }
 
+    // One conditional UPDATE ... RETURNING in the common case; the order is only read again when it misses
     public OrderDto updateStatus(int id, String status) {
-        Order order = repository.findById(id)
-            .orElseThrow(() -> new OrderNotFoundException("Order not found"));
-        order.setStatus(status);
-        return toDto(repository.save(order));
+        OrderStatus target = OrderStatus.parse(status);
+        OrderStatus from = requirePrevious(target);
+        return transactionTemplate.execute(tx -> {
+            List<Order> updated = repository.transitionStatus(id, from.code(), target.code());
+            if (updated.isEmpty()) {
+                Order order = repository.findById(id).orElseGet(() -> {
+                    requireWritten(id);
+                    throw new OrderNotFoundException("Order not found");
+                });
+                if (target.name().equals(order.getStatus())) {
+                    return toDto(order);
+                }
+                throw new InvalidStatusTransitionException(
+                        "Order " + id + " is " + order.getStatus() + ", cannot move to " + target);
+            }
+            OrderDto current = toDto(updated.get(0));
+            eventPublisher.publishEvent(OrderChangedEvent.statusUpdated(withStatus(current, from), current));
+            return current;
+        });
+    }
+
+    // Journaled orders cannot change until the writer has inserted them
+    private void requireWritten(int id) {
+        if (journalService.pendingOrder(id).isPresent()) {
+            throw new ServiceBusyException("Order " + id + " is still being saved, try again shortly");
+        }
+    }
+
+    static OrderStatus requirePrevious(OrderStatus target) {
+        OrderStatus from = target.requiredPrevious();
+        if (from == null) {
+            throw new InvalidStatusTransitionException("Orders cannot be moved back to " + target);
+        }
+        return from;
+    }
+
+    static OrderDto withStatus(OrderDto order, OrderStatus status) {
+        return OrderDto.builder()
+                .id(order.getId())
+                .productId(order.getProductId())
+                .customerId(order.getCustomerId())
+                .quantity(order.getQuantity())
+                .orderDate(order.getOrderDate())
+                .status(status.name())
+                .unitPrice(order.getUnitPrice())
+                .build();
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // One extra row is fetched to tell whether another page exists
+    private OrderPage toPage(List<OrderDto> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<OrderDto> items = hasMore ? rows.subList(0, limit) : rows;
+        String next = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        return OrderPage.builder().items(items).nextCursor(next).hasMore(hasMore).build();
+    }
+
+    private static String encodeCursor(OrderDto last) {
+        String raw = last.getOrderDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
-    private OrderDto toDto(Order o) {
+    private record Cursor(LocalDateTime orderDate, int id) {}
+
+    static OrderDto toDto(Order o) {
         return OrderDto.builder()
                 .id(o.getId())
                 .productId(o.getProductId())
@@ -86,6 +277,7 @@ public class OrderService {
                 .quantity(o.getQuantity())
                 .orderDate(o.getOrderDate())
                 .status(o.getStatus())
+                .unitPrice(o.getUnitPrice())
                 .build();
     }
 }
@@ -0,0 +1,142 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.BulkStatusUpdateRequest;
+import com.pksa.order_service.dto.BulkStatusUpdateResult;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.StatusUpdateResult;
+import com.pksa.order_service.entity.Order;
+import com.pksa.order_service.entity.OrderStatus;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Bulk status transitions. Each chunk is one set-based UPDATE guarded by the required previous
+ * status, so an order changed by someone else in the meantime is simply not matched; ids that
+ * were not updated are then classified from a single status read.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderStatusService {
+    private final OrderRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Logger logger = LoggerFactory.getLogger(OrderStatusService.class);
+
+    @Value("${orders.status.max-size:10000}")
+    private int maxSize;
+
+    @Value("${orders.status.chunk-size:1000}")
+    private int chunkSize;
+
+    public BulkStatusUpdateResult updateStatuses(BulkStatusUpdateRequest request) {
+        OrderStatus target = OrderStatus.parse(request.getStatus());
+        OrderStatus from = OrderService.requirePrevious(target);
+        boolean byIds = request.getIds() != null;
+        boolean byFilter = request.getCustomerId() != null || request.getOrderDateFrom() != null
+                || request.getOrderDateTo() != null || request.getLimit() != null;
+        if (byIds == byFilter) {
+            throw new IllegalArgumentException("Specify either ids or a filter (customerId, orderDateFrom, orderDateTo, limit)");
+        }
+
+        List<StatusUpdateResult> results = byIds
+                ? updateIds(new LinkedHashSet<>(request.getIds()), from, target)
+                : updateMatching(request, from, target);
+        int updated = (int) results.stream().filter(r -> Outcome.UPDATED.name().equals(r.getOutcome())).count();
+        logger.info("Bulk status update to {}: {} of {} orders updated", target, updated, results.size());
+        return BulkStatusUpdateResult.builder()
+                .status(target.name())
+                .updated(updated)
+                .results(results)
+                .build();
+    }
+
+    private List<StatusUpdateResult> updateIds(Set<Integer> ids, OrderStatus from, OrderStatus target) {
+        ids.remove(null);
+        if (ids.size() > maxSize) {
+            throw new IllegalArgumentException("Too many ids: " + ids.size() + " > " + maxSize);
+        }
+        List<Integer> all = new ArrayList<>(ids);
+        Map<Integer, StatusUpdateResult> results = new HashMap<>();
+        for (int start = 0; start < all.size(); start += chunkSize) {
+            List<Integer> chunk = all.subList(start, Math.min(start + chunkSize, all.size()));
+            transactionTemplate.executeWithoutResult(tx -> {
+                // Step 1: Apply the transition to every id still in the previous status
+                for (Order order : repository.transitionStatuses(chunk, from.code(), target.code())) {
+                    results.put(order.getId(), updated(order, from));
+                }
+
+                // Step 2: Explain the misses from what the rows hold now
+                List<Integer> missed = chunk.stream().filter(id -> !results.containsKey(id)).toList();
+                if (!missed.isEmpty()) {
+                    Map<Integer, String> current = new HashMap<>();
+                    repository.findStatuses(missed).forEach(v -> current.put(v.getId(), v.getStatus()));
+                    for (Integer id : missed) {
+                        results.put(id, classify(id, current.get(id), from, target));
+                    }
+                }
+            });
+        }
+        return all.stream().map(results::get).toList();
+    }
+
+    private List<StatusUpdateResult> updateMatching(BulkStatusUpdateRequest request, OrderStatus from, OrderStatus target) {
+        int limit = request.getLimit() == null ? maxSize : Math.min(request.getLimit(), maxSize);
+        List<StatusUpdateResult> results = new ArrayList<>();
+        while (results.size() < limit) {
+            int batch = Math.min(chunkSize, limit - results.size());
+            List<StatusUpdateResult> chunk = transactionTemplate.execute(tx ->
+                    repository.transitionStatusesMatching(from.code(), target.code(), request.getCustomerId(),
+                                    request.getOrderDateFrom(), request.getOrderDateTo(), batch)
+                            .stream()
+                            .map(order -> updated(order, from))
+                            .toList());
+            results.addAll(chunk);
+            if (chunk.size() < batch) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Events are published inside the chunk transaction, like single updates
+    private StatusUpdateResult updated(Order order, OrderStatus from) {
+        OrderDto current = OrderService.toDto(order);
+        eventPublisher.publishEvent(OrderChangedEvent.statusUpdated(OrderService.withStatus(current, from), current));
+        return result(order.getId(), Outcome.UPDATED, current.getStatus(), null);
+    }
+
+    private StatusUpdateResult classify(Integer id, String status, OrderStatus from, OrderStatus target) {
+        if (status == null) {
+            return result(id, Outcome.NOT_FOUND, null, "Order not found");
+        }
+        if (status.equals(target.name())) {
+            return result(id, Outcome.ALREADY_IN_STATUS, status, null);
+        }
+        if (status.equals(from.name())) {
+            // It was not in the previous status when the UPDATE ran but is now: changed concurrently
+            return result(id, Outcome.CONFLICT, status, "Order was modified concurrently, retry");
+        }
+        return result(id, Outcome.INVALID_TRANSITION, status, "Cannot move from " + status + " to " + target);
+    }
+
+    private static StatusUpdateResult result(Integer id, Outcome outcome, String status, String error) {
+        return new StatusUpdateResult(id, outcome.name(), status, error);
+    }
+
+    enum Outcome {
+        UPDATED,
+        ALREADY_IN_STATUS,
+        INVALID_TRANSITION,
+        CONFLICT,
+        NOT_FOUND
+    }
+}
@@ -1,28 +1,29 @@
 package com.pksa.order_service.service;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.pksa.order_service.dto.OutboundMail;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+
 @Service
 @RequiredArgsConstructor
 public class PlainEmailService {
-private final JavaMailSender mailSender;
-public void sendWithAttachment(String to, String subject, String text, byte[] attachment, String filename)
-        throws MessagingException {
-
-    MimeMessage message = mailSender.createMimeMessage();
-    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-    helper.setTo(to);
-    helper.setSubject(subject != null ? subject : "Admin Report");
-    helper.setText(text != null ? text : "Please find the requested report attached.", false);
-    helper.addAttachment(filename, new ByteArrayResource(attachment));
+private final MailDeliveryService mailDelivery;
 
-    mailSender.send(message);
+/**
+ * Queues a plain text email with the attachment file and returns the delivery id.
+ * The file is handed over to the mail queue, which deletes it once the mail is sent.
+ */
+public String sendWithAttachment(String to, String subject, String text, Path attachment, String filename,
+                                 String batchKey) {
+    return mailDelivery.enqueue(OutboundMail.builder()
+            .to(to)
+            .subject(subject != null ? subject : "Admin Report")
+            .body(text != null ? text : "Please find the requested report attached.")
+            .attachment(attachment)
+            .attachmentName(filename)
+            .batchKey(batchKey)
+            .build());
 }
 
 
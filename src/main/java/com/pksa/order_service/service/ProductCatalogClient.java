@@ -0,0 +1,187 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.ProductCacheStats;
+import com.pksa.order_service.dto.ProductDto;
+import com.pksa.order_service.support.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached lookups against product-service. Entries are fresh for {@code ttl}; past
+ * {@code refreshAheadRatio * ttl} a hit also triggers a background reload, and for
+ * {@code staleWindow} after expiry the old entry is served while a reload runs, so a slow
+ * or unavailable product-service does not fail orders for recently seen products.
+ * Concurrent misses on the same id share one HTTP call, and remote calls sit behind a circuit breaker.
+ */
+@Service
+public class ProductCatalogClient {
+    private final WebClient webClient;
+    private final Logger logger = LoggerFactory.getLogger(ProductCatalogClient.class);
+
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final long refreshAheadMillis;
+    private final int maxSize;
+    private final Duration fetchTimeout;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Map<Integer, CachedProduct> cache = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<ProductDto>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public ProductCatalogClient(WebClient.Builder webClientBuilder,
+                                @Value("${product-service.base-url:http://localhost:8081}") String baseUrl,
+                                @Value("${product-cache.ttl:5m}") Duration ttl,
+                                @Value("${product-cache.stale-window:30m}") Duration staleWindow,
+                                @Value("${product-cache.refresh-ahead-ratio:0.8}") double refreshAheadRatio,
+                                @Value("${product-cache.max-size:10000}") int maxSize,
+                                @Value("${product-service.timeout:2s}") Duration fetchTimeout,
+                                @Value("${product-service.circuit.failure-threshold:5}") int failureThreshold,
+                                @Value("${product-service.circuit.open-duration:30s}") Duration openDuration) {
+        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+        this.ttlMillis = ttl.toMillis();
+        this.staleMillis = staleWindow.toMillis();
+        // A ratio of 1 or more disables refresh-ahead
+        this.refreshAheadMillis = refreshAheadRatio >= 1 ? Long.MAX_VALUE : (long) (ttlMillis * refreshAheadRatio);
+        this.maxSize = maxSize;
+        this.fetchTimeout = fetchTimeout;
+        this.circuitBreaker = new CircuitBreaker("product-service", failureThreshold, openDuration.toMillis());
+    }
+
+    /** Blocking lookup; returns null when product-service does not know the id. */
+    public ProductDto getProduct(int productId) {
+        try {
+            return getProductAsync(productId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /** Completes with null when product-service does not know the id. */
+    public CompletableFuture<ProductDto> getProductAsync(int productId) {
+        CachedProduct entry = cache.get(productId);
+        if (entry != null) {
+            long age = System.currentTimeMillis() - entry.loadedAt();
+            if (age < ttlMillis) {
+                hits.incrementAndGet();
+                if (age >= refreshAheadMillis) {
+                    refresh(productId);
+                }
+                return CompletableFuture.completedFuture(entry.product());
+            }
+            if (age < ttlMillis + staleMillis) {
+                staleServed.incrementAndGet();
+                refresh(productId);
+                return CompletableFuture.completedFuture(entry.product());
+            }
+        }
+        misses.incrementAndGet();
+        return load(productId);
+    }
+
+    public ProductCacheStats stats() {
+        return ProductCacheStats.builder()
+                .hits(hits.get())
+                .misses(misses.get())
+                .staleServed(staleServed.get())
+                .coalesced(coalesced.get())
+                .refreshes(refreshes.get())
+                .loadFailures(loadFailures.get())
+                .evictions(evictions.get())
+                .size(cache.size())
+                .circuitState(circuitBreaker.getState().name())
+                .build();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private void refresh(int productId) {
+        if (!inFlight.containsKey(productId)) {
+            refreshes.incrementAndGet();
+            load(productId);
+        }
+    }
+
+    private CompletableFuture<ProductDto> load(int productId) {
+        CompletableFuture<ProductDto> mine = new CompletableFuture<>();
+        CompletableFuture<ProductDto> existing = inFlight.putIfAbsent(productId, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        fetch(productId).whenComplete((product, ex) -> {
+            if (ex == null && product != null) {
+                cache.put(productId, new CachedProduct(product, System.currentTimeMillis()));
+                evictIfNeeded();
+            }
+            inFlight.remove(productId, mine);
+            if (ex != null) {
+                loadFailures.incrementAndGet();
+                logger.warn("Product lookup failed for {}: {}", productId, ex.getMessage());
+                mine.completeExceptionally(ex);
+            } else {
+                mine.complete(product);
+            }
+        });
+        return mine;
+    }
+
+    // Only remote calls go through the breaker; cached and stale entries are served while it is open
+    private CompletableFuture<ProductDto> fetch(int productId) {
+        return circuitBreaker.call(() -> webClient.get()
+                .uri("/products/{id}", productId)
+                .retrieve()
+                .bodyToMono(ProductDto.class)
+                .timeout(fetchTimeout)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                .toFuture());
+    }
+
+    // Drops the oldest tenth once the cache grows past max-size, so the scan is amortized
+    private void evictIfNeeded() {
+        if (cache.size() <= maxSize) {
+            return;
+        }
+        int toEvict = Math.max(1, cache.size() - maxSize + maxSize / 10);
+        cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().loadedAt()))
+                .limit(toEvict)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(id -> {
+                    if (cache.remove(id) != null) {
+                        evictions.incrementAndGet();
+                    }
+                });
+    }
+
+    private record CachedProduct(ProductDto product, long loadedAt) {}
+}
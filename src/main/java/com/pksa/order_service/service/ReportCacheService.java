@@ -0,0 +1,368 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.AdminReportRequest;
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.dto.ReportCacheStats;
+import com.pksa.order_service.event.OrderChangedEvent;
+import com.pksa.order_service.support.TransactionBuffer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of rendered admin reports. An in-process LRU tier bounded by total bytes sits in front of
+ * an optional Redis tier. Keys are the normalized request plus a time bucket, concurrent misses on
+ * the same key share one render, and order writes invalidate every duration whose window they fall in.
+ * With Redis enabled, invalidations are also broadcast on a channel so other nodes drop their
+ * local copies straight away instead of serving them until the bucket expires. A transaction's
+ * writes are applied together once it commits, so each duration is invalidated at most once per
+ * transaction however many orders it wrote.
+ */
+@Service
+public class ReportCacheService {
+    private static final List<String> DURATIONS = List.of("1_WEEK", "1_MONTH", "6_MONTHS");
+    private static final String REDIS_PREFIX = "report-cache:";
+    private static final String CHANNEL = REDIS_PREFIX + "invalidate";
+
+    private final AdminReportService adminReportService;
+    private final RedisTemplate<String, byte[]> redis;
+    private final RedisMessageListenerContainer subscriber;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final TransactionBuffer<OrderChangedEvent> committed = TransactionBuffer.afterCommit(this::invalidateFor);
+    private final Logger logger = LoggerFactory.getLogger(ReportCacheService.class);
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final Duration bucket;
+
+    private final LinkedHashMap<String, CachedReport> local = new LinkedHashMap<>(16, 0.75f, true);
+    private long localBytes;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong remoteInvalidations = new AtomicLong();
+
+    public ReportCacheService(AdminReportService adminReportService,
+                              ObjectProvider<RedisConnectionFactory> redisConnectionFactory,
+                              @Value("${report.cache.enabled:true}") boolean enabled,
+                              @Value("${report.cache.max-size:64MB}") DataSize maxSize,
+                              @Value("${report.cache.bucket:5m}") Duration bucket,
+                              @Value("${report.cache.redis.enabled:false}") boolean redisEnabled) {
+        this.adminReportService = adminReportService;
+        this.enabled = enabled;
+        this.maxBytes = maxSize.toBytes();
+        this.bucket = bucket;
+        DURATIONS.forEach(d -> generations.put(d, new AtomicLong()));
+        if (redisEnabled) {
+            RedisConnectionFactory connectionFactory = redisConnectionFactory.getObject();
+            this.redis = createRedisTemplate(connectionFactory);
+            this.subscriber = createSubscriber(connectionFactory);
+        } else {
+            this.redis = null;
+            this.subscriber = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        if (subscriber != null) {
+            subscriber.destroy();
+        }
+    }
+
+    public byte[] getOrGenerate(AdminReportRequest request) throws IOException {
+        if (!enabled) {
+            return adminReportService.generateReport(request);
+        }
+        String duration = normalizeDuration(request.getDuration());
+        long generation = generations.get(duration).get();
+        String key = cacheKey(request, duration) + "|g" + generation;
+
+        byte[] cached = getLocal(key, duration, generation);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return cached;
+        }
+
+        // Single flight: concurrent misses on the same key wait for the first render
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            byte[] data = getRemote(key, duration);
+            if (data != null) {
+                redisHits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                data = adminReportService.generateReport(request);
+                putRemote(key, duration, data);
+            }
+            putLocal(key, new CachedReport(data, duration, generation,
+                    System.currentTimeMillis() + bucket.toMillis()));
+            mine.complete(data);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (enabled) {
+            committed.add(event);
+        }
+    }
+
+    // A duration is stale if any write touched its window, so only the latest of the earliest dates matters
+    private void invalidateFor(List<OrderChangedEvent> events) {
+        LocalDateTime latest = null;
+        for (OrderChangedEvent event : events) {
+            LocalDateTime earliest = earliestOrderDate(event);
+            if (earliest == null) {
+                latest = null;
+                break;
+            }
+            if (latest == null || earliest.isAfter(latest)) {
+                latest = earliest;
+            }
+        }
+        for (String duration : DURATIONS) {
+            if (latest == null || !latest.isBefore(adminReportService.calculateStartDate(duration))) {
+                invalidate(duration);
+            }
+        }
+    }
+
+    public ReportCacheStats stats() {
+        long hits = localHits.get() + redisHits.get();
+        long lookups = hits + misses.get() + coalesced.get();
+        int entries;
+        long bytes;
+        synchronized (local) {
+            entries = local.size();
+            bytes = localBytes;
+        }
+        return ReportCacheStats.builder()
+                .localHits(localHits.get())
+                .redisHits(redisHits.get())
+                .misses(misses.get())
+                .coalesced(coalesced.get())
+                .evictions(evictions.get())
+                .invalidations(invalidations.get())
+                .remoteInvalidations(remoteInvalidations.get())
+                .entries(entries)
+                .bytes(bytes)
+                .hitRate(lookups == 0 ? 0.0 : (double) (hits + coalesced.get()) / lookups)
+                .build();
+    }
+
+    private void invalidate(String duration) {
+        invalidations.incrementAndGet();
+        dropLocal(duration);
+        if (redis != null) {
+            try {
+                redis.opsForValue().increment(REDIS_PREFIX + "version:" + duration);
+                redis.convertAndSend(CHANNEL, (nodeId + ":" + duration).getBytes(StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                logger.warn("Redis report cache invalidation failed for {}: {}", duration, e.getMessage());
+            }
+        }
+    }
+
+    private void onRemoteInvalidation(String message) {
+        int sep = message.lastIndexOf(':');
+        String duration = sep < 0 ? null : message.substring(sep + 1);
+        if (duration == null || message.substring(0, sep).equals(nodeId) || !generations.containsKey(duration)) {
+            return;
+        }
+        remoteInvalidations.incrementAndGet();
+        dropLocal(duration);
+    }
+
+    private void dropLocal(String duration) {
+        generations.get(duration).incrementAndGet();
+        synchronized (local) {
+            Iterator<CachedReport> it = local.values().iterator();
+            while (it.hasNext()) {
+                CachedReport entry = it.next();
+                if (entry.duration().equals(duration)) {
+                    localBytes -= entry.data().length;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private byte[] getLocal(String key, String duration, long generation) {
+        synchronized (local) {
+            CachedReport entry = local.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.generation() != generation || entry.expiresAt() < System.currentTimeMillis()) {
+                local.remove(key);
+                localBytes -= entry.data().length;
+                return null;
+            }
+            return entry.data();
+        }
+    }
+
+    private void putLocal(String key, CachedReport entry) {
+        if (entry.data().length > maxBytes) {
+            return;
+        }
+        synchronized (local) {
+            // An invalidation raced with the render; the result may already be stale
+            if (generations.get(entry.duration()).get() != entry.generation()) {
+                return;
+            }
+            CachedReport previous = local.put(key, entry);
+            if (previous != null) {
+                localBytes -= previous.data().length;
+            }
+            localBytes += entry.data().length;
+
+            Iterator<CachedReport> it = local.values().iterator();
+            while (localBytes > maxBytes && it.hasNext()) {
+                localBytes -= it.next().data().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private byte[] getRemote(String key, String duration) {
+        if (redis == null) {
+            return null;
+        }
+        try {
+            return redis.opsForValue().get(remoteKey(key, duration));
+        } catch (RuntimeException e) {
+            logger.warn("Redis report cache read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(String key, String duration, byte[] data) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(remoteKey(key, duration), data, bucket);
+        } catch (RuntimeException e) {
+            logger.warn("Redis report cache write failed: {}", e.getMessage());
+        }
+    }
+
+    // Redis keys carry the shared per-duration version so invalidations reach every node
+    private String remoteKey(String key, String duration) {
+        Long version = redis.opsForValue().increment(REDIS_PREFIX + "version:" + duration, 0);
+        return REDIS_PREFIX + "v" + version + "|" + key;
+    }
+
+    private String cacheKey(AdminReportRequest request, String duration) {
+        long timeBucket = Instant.now().getEpochSecond() / bucket.toSeconds();
+        // getStatus() is normalised, so "shipped" and "SHIPPED" share an entry and render the same rows
+        String status = request.getStatus() == null ? "" : request.getStatus();
+        return String.join("|",
+                duration,
+                request.getFormat().toUpperCase(),
+                status,
+                String.valueOf(request.getCustomerId()),
+                String.valueOf(request.isStreaming()),
+                String.valueOf(request.getMaxRows()),
+                "t" + timeBucket);
+    }
+
+    private String normalizeDuration(String duration) {
+        return duration != null && DURATIONS.contains(duration) ? duration : "1_MONTH";
+    }
+
+    private LocalDateTime earliestOrderDate(OrderChangedEvent event) {
+        LocalDateTime earliest = null;
+        for (OrderDto order : new OrderDto[] {event.previous(), event.current()}) {
+            if (order == null || order.getOrderDate() == null) {
+                continue;
+            }
+            if (earliest == null || order.getOrderDate().isBefore(earliest)) {
+                earliest = order.getOrderDate();
+            }
+        }
+        return earliest;
+    }
+
+    private byte[] await(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+
+    private static RedisTemplate<String, byte[]> createRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private RedisMessageListenerContainer createSubscriber(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                onRemoteInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+
+    private record CachedReport(byte[] data, String duration, long generation, long expiresAt) {}
+}
@@ -0,0 +1,246 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.config.WorkerThreads;
+import com.pksa.order_service.dto.AdminReportRequest;
+import com.pksa.order_service.dto.ReportJobDto;
+import com.pksa.order_service.exception.ReportJobNotFoundException;
+import com.pksa.order_service.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders admin reports on a bounded worker pool so HTTP threads only submit and poll.
+ * Finished artifacts are kept in temp files until the retention period expires.
+ */
+@Service
+public class ReportJobService {
+    private final AdminReportService adminReportService;
+    private final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor purger =
+            new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("report-purge-"));
+    private final Duration retention;
+
+    public ReportJobService(AdminReportService adminReportService,
+                            WorkerThreads workerThreads,
+                            @Value("${report.jobs.workers:2}") int workerCount,
+                            @Value("${report.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${report.jobs.retention:1h}") Duration retention,
+                            @Value("${report.jobs.purge-interval:5m}") Duration purgeInterval) {
+        this.adminReportService = adminReportService;
+        this.retention = retention;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), workerThreads.factory("report-worker-"));
+        // Artifacts expire on their own, not only when the next job is submitted
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeInterval.toMillis(), purgeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** Called with the rendered file once a job finishes, still on the worker thread. */
+    @FunctionalInterface
+    public interface ArtifactHandler {
+        void handle(Path artifact) throws Exception;
+    }
+
+    public ReportJobDto submit(AdminReportRequest request) {
+        return submit(request, null);
+    }
+
+    public ReportJobDto submit(AdminReportRequest request, ArtifactHandler onComplete) {
+        if (!adminReportService.isSupportedFormat(request.getFormat())) {
+            throw new IllegalArgumentException("Unsupported format: " + request.getFormat());
+        }
+        purgeExpired();
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), request, onComplete);
+        jobs.put(job.id, job);
+        try {
+            job.future = workers.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ServiceBusyException("Report queue is full, try again later");
+        }
+        logger.info("Report job {} queued: format={}, duration={}", job.id, request.getFormat(), request.getDuration());
+        return toDto(job);
+    }
+
+    public ReportJobDto getJob(String id) {
+        return toDto(find(id));
+    }
+
+    public Path getArtifact(String id) {
+        ReportJob job = find(id);
+        Path artifact = job.artifact;
+        if (artifact == null) {
+            throw new IllegalStateException("Report job " + id + " is " + job.state.get());
+        }
+        return artifact;
+    }
+
+    public ReportJobDto cancel(String id) {
+        ReportJob job = find(id);
+        if (job.state.compareAndSet(JobState.QUEUED, JobState.CANCELLED)
+                || job.state.compareAndSet(JobState.RUNNING, JobState.CANCELLED)) {
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+            job.finishedAt = LocalDateTime.now();
+            workers.purge();
+            logger.info("Report job {} cancelled", id);
+        }
+        return toDto(job);
+    }
+
+    public int queueDepth() {
+        return workers.getQueue().size();
+    }
+
+    private void run(ReportJob job) {
+        if (!job.state.compareAndSet(JobState.QUEUED, JobState.RUNNING)) {
+            return;
+        }
+        job.startedAt = LocalDateTime.now();
+        Path file = null;
+        try {
+            file = Files.createTempFile("report-job-" + job.id + "-", ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                adminReportService.writeReport(job.request, out, () -> {
+                    if (Thread.currentThread().isInterrupted() || job.state.get() == JobState.CANCELLED) {
+                        throw new CancellationException("Report job cancelled");
+                    }
+                    job.rowsRendered.incrementAndGet();
+                });
+            }
+            if (job.onComplete != null) {
+                job.onComplete.handle(file);
+            }
+            // A job cancelled while rendering never publishes its file
+            if (job.state.compareAndSet(JobState.RUNNING, JobState.COMPLETED)) {
+                job.artifact = file;
+            } else {
+                deleteQuietly(file);
+            }
+        } catch (CancellationException e) {
+            deleteQuietly(file);
+        } catch (Exception e) {
+            deleteQuietly(file);
+            job.error = e.getMessage();
+            job.state.compareAndSet(JobState.RUNNING, JobState.FAILED);
+            logger.error("Report job {} failed: {}", job.id, e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ReportJobNotFoundException("Report job not found");
+        }
+        return job;
+    }
+
+    private void purgeExpired() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            jobs.values().removeIf(job -> {
+                boolean expired = job.finishedAt != null && job.finishedAt.isBefore(cutoff);
+                if (expired) {
+                    deleteQuietly(job.artifact);
+                }
+                return expired;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Report artifact purge failed: {}", e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report artifact {}: {}", file, e.getMessage());
+        }
+    }
+
+    private ReportJobDto toDto(ReportJob job) {
+        Long size = null;
+        if (job.artifact != null) {
+            try {
+                size = Files.size(job.artifact);
+            } catch (IOException ignored) {
+                // artifact was purged between the check and the read
+            }
+        }
+        return ReportJobDto.builder()
+                .id(job.id)
+                .status(job.state.get().name())
+                .format(job.request.getFormat())
+                .duration(job.request.getDuration())
+                .rowsRendered(job.rowsRendered.get())
+                .artifactBytes(size)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .error(job.error)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        purger.shutdownNow();
+    }
+
+    private enum JobState { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private static class ReportJob {
+        private final String id;
+        private final AdminReportRequest request;
+        private final ArtifactHandler onComplete;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicReference<JobState> state = new AtomicReference<>(JobState.QUEUED);
+        private final AtomicLong rowsRendered = new AtomicLong();
+        private volatile Future<?> future;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Path artifact;
+        private volatile String error;
+
+        private ReportJob(String id, AdminReportRequest request, ArtifactHandler onComplete) {
+            this.id = id;
+            this.request = request;
+            this.onComplete = onComplete;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.pksa.order_service.service;
+
+/**
+ * Callback invoked by report renderers after each data row is written.
+ * Implementations may throw {@link java.util.concurrent.CancellationException} to abort rendering.
+ */
+@FunctionalInterface
+public interface ReportProgress {
+    ReportProgress NONE = () -> { };
+
+    void rowWritten();
+}
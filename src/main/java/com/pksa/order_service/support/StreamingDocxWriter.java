@@ -0,0 +1,211 @@
+package com.pksa.order_service.support;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a minimal DOCX package straight to an output stream: paragraphs and one bordered table,
+ * emitted as WordprocessingML while rows arrive, so nothing but the current row is held in memory.
+ * {@link #finish()} completes the package; {@link #close()} only releases resources, so a writer
+ * closed without finishing leaves an incomplete package rather than a truncated but valid one.
+ * The underlying stream is never closed.
+ */
+public class StreamingDocxWriter implements Closeable {
+    private static final String CONTENT_TYPES = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+            <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+            <Default Extension="xml" ContentType="application/xml"/>\
+            <Override PartName="/word/document.xml" \
+            ContentType="application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml"/>\
+            </Types>""";
+
+    private static final String PACKAGE_RELS = """
+            <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+            <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+            <Relationship Id="rId1" \
+            Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" \
+            Target="word/document.xml"/>\
+            </Relationships>""";
+
+    private static final String BORDER = " w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"000000\"/>";
+
+    private final Target target;
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private boolean inTable;
+    private boolean finished;
+    private boolean closed;
+
+    public StreamingDocxWriter(OutputStream out) throws IOException {
+        this.target = new Target(out);
+        this.zip = new ZipOutputStream(target);
+        writeEntry("[Content_Types].xml", CONTENT_TYPES);
+        writeEntry("_rels/.rels", PACKAGE_RELS);
+
+        zip.putNextEntry(new ZipEntry("word/document.xml"));
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        xml.write("<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>");
+    }
+
+    public void paragraph(String text) throws IOException {
+        paragraph(text, false, 0);
+    }
+
+    /** @param fontSize size in points, or 0 for the default */
+    public void paragraph(String text, boolean bold, int fontSize) throws IOException {
+        xml.write("<w:p><w:r>");
+        if (bold || fontSize > 0) {
+            xml.write("<w:rPr>");
+            if (bold) {
+                xml.write("<w:b/>");
+            }
+            if (fontSize > 0) {
+                // Word measures font size in half-points
+                xml.write("<w:sz w:val=\"" + fontSize * 2 + "\"/>");
+            }
+            xml.write("</w:rPr>");
+        }
+        text(text);
+        xml.write("</w:r></w:p>");
+    }
+
+    public void startTable(String... headers) throws IOException {
+        xml.write("<w:tbl><w:tblPr><w:tblW w:w=\"0\" w:type=\"auto\"/><w:tblBorders>");
+        for (String side : new String[] {"top", "left", "bottom", "right", "insideH", "insideV"}) {
+            xml.write("<w:" + side + BORDER);
+        }
+        xml.write("</w:tblBorders></w:tblPr><w:tblGrid>");
+        for (int i = 0; i < headers.length; i++) {
+            xml.write("<w:gridCol/>");
+        }
+        xml.write("</w:tblGrid>");
+        inTable = true;
+        row(headers);
+    }
+
+    public void row(String... cells) throws IOException {
+        xml.write("<w:tr>");
+        for (String cell : cells) {
+            xml.write("<w:tc><w:p><w:r>");
+            text(cell);
+            xml.write("</w:r></w:p></w:tc>");
+        }
+        xml.write("</w:tr>");
+    }
+
+    public void endTable() throws IOException {
+        xml.write("</w:tbl>");
+        inTable = false;
+    }
+
+    /** Writes the document trailer and the zip directory. Call once every row has been written. */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (inTable) {
+            endTable();
+        }
+        // A body must not end with a table, so close with an empty paragraph as Word does
+        xml.write("<w:p/><w:sectPr/></w:body></w:document>");
+        xml.flush();
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!finished) {
+            target.detach();
+        }
+        // Releases the deflater; whatever the zip still writes after a detach is dropped
+        zip.close();
+    }
+
+    private void text(String value) throws IOException {
+        xml.write("<w:t xml:space=\"preserve\">");
+        if (value != null) {
+            escape(value);
+        }
+        xml.write("</w:t>");
+    }
+
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> xml.write("&amp;");
+                case '<' -> xml.write("&lt;");
+                case '>' -> xml.write("&gt;");
+                case '"' -> xml.write("&quot;");
+                default -> {
+                    // Control characters other than tab/newline are not allowed in XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        xml.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    // Passes bytes through until detached, and never closes the caller's stream
+    private static final class Target extends FilterOutputStream {
+        private boolean detached;
+
+        Target(OutputStream out) {
+            super(out);
+        }
+
+        void detach() {
+            detached = true;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!detached) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!detached) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!detached) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
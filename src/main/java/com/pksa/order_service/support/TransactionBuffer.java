@@ -0,0 +1,77 @@
+package com.pksa.order_service.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects items for the current transaction and hands them to {@code flush} once, either just
+ * before it commits or once it has committed. Listeners that run inside a writer's transaction use
+ * it to turn one statement or notification per order into one per transaction, which also keeps
+ * the row locks those statements take for no longer than the commit itself. Nothing buffered
+ * after commit is flushed on rollback. Outside a transaction each item is flushed immediately.
+ */
+public final class TransactionBuffer<T> {
+    private final Consumer<List<T>> flush;
+    private final boolean afterCommit;
+
+    private TransactionBuffer(Consumer<List<T>> flush, boolean afterCommit) {
+        this.flush = flush;
+        this.afterCommit = afterCommit;
+    }
+
+    /** Flushes inside the transaction, after the last item was added and before it commits. */
+    public static <T> TransactionBuffer<T> beforeCommit(Consumer<List<T>> flush) {
+        return new TransactionBuffer<>(flush, false);
+    }
+
+    /** Flushes once the transaction has committed. */
+    public static <T> TransactionBuffer<T> afterCommit(Consumer<List<T>> flush) {
+        return new TransactionBuffer<>(flush, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void add(T item) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flush.accept(List.of(item));
+            return;
+        }
+        List<T> items = (List<T>) TransactionSynchronizationManager.getResource(this);
+        if (items == null) {
+            List<T> pending = new ArrayList<>();
+            items = pending;
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (!afterCommit) {
+                        drain(pending);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (afterCommit) {
+                        drain(pending);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TransactionBuffer.this);
+                }
+            });
+        }
+        items.add(item);
+    }
+
+    private void drain(List<T> pending) {
+        if (!pending.isEmpty()) {
+            flush.accept(List.copyOf(pending));
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pksa.order_service.archive;
+
+import com.pksa.order_service.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 6, 1, 12, 0, 0, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackFilteredRowsAndPrunesByHeader() throws Exception {
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            orders.add(order(1_000 - i, BASE.minusHours(i), 100 + i % 10));
+        }
+        orders.get(5).setUnitPrice(null);
+
+        Path file = dir.resolve("a.seg");
+        ArchiveSegment.write(file, orders);
+        ArchiveSegment segment = ArchiveSegment.open(file);
+
+        assertEquals(1_000, segment.rowCount());
+        assertEquals(BASE, segment.maxDate());
+        try (Stream<OrderDto> rows = segment.rows(null, null, null, null)) {
+            assertEquals(orders, rows.toList());
+        }
+        try (Stream<OrderDto> rows = segment.rows(BASE.minusHours(99), BASE.minusHours(10), "delivered", 103)) {
+            assertEquals(List.of(987, 977, 967, 957, 947, 937, 927, 917, 907), rows.map(OrderDto::getId).toList());
+        }
+
+        assertFalse(segment.mightMatch(BASE.plusSeconds(1), BASE.plusDays(1), null, null));
+        assertFalse(segment.mightMatch(null, null, "SHIPPED", null));
+        assertFalse(segment.mightMatch(null, null, null, 99));
+        assertTrue(segment.mightMatch(null, null, "DELIVERED", 109));
+    }
+
+    @Test
+    void mergesNewestFirstAndDropsCopiesInBothTiers() {
+        List<OrderDto> hot = List.of(order(9, BASE, 1), order(7, BASE.minusHours(2), 1), order(4, BASE.minusHours(5), 1));
+        List<OrderDto> cold = List.of(order(8, BASE, 1), order(7, BASE.minusHours(2), 1), order(3, BASE.minusHours(6), 1));
+
+        NewestFirstMerge merge = new NewestFirstMerge(List.of(hot.iterator(), cold.iterator()));
+        List<Integer> ids = new ArrayList<>();
+        merge.forEachRemaining(o -> ids.add(o.getId()));
+
+        assertEquals(List.of(9, 8, 7, 4, 3), ids);
+    }
+
+    private static OrderDto order(int id, LocalDateTime date, int customerId) {
+        return new OrderDto(id, 42, customerId, 2, date, "DELIVERED", 19.5);
+    }
+}
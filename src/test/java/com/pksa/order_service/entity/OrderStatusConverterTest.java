@@ -0,0 +1,39 @@
+package com.pksa.order_service.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusConverterTest {
+    private final OrderStatusConverter converter = new OrderStatusConverter();
+
+    @Test
+    void roundTripsEveryStatus() {
+        for (OrderStatus status : OrderStatus.values()) {
+            Short code = converter.convertToDatabaseColumn(status.name());
+            assertEquals(status.code(), code);
+            assertSame(status.name(), converter.convertToEntityAttribute(code));
+        }
+    }
+
+    @Test
+    void normalizesNamesAndKeepsNulls() {
+        assertEquals(OrderStatus.SHIPPED.code(), converter.convertToDatabaseColumn(" \"shipped\" "));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void mapsUnknownNamesToACodeNoStatusUses() {
+        Short code = converter.convertToDatabaseColumn("LOST");
+        assertEquals(OrderStatusConverter.UNKNOWN_CODE, code);
+        for (OrderStatus status : OrderStatus.values()) {
+            assertNotEquals(status.code(), code);
+        }
+    }
+
+    @Test
+    void rejectsUnknownCodes() {
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute((short) 42));
+    }
+}
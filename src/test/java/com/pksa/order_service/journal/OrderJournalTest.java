@@ -0,0 +1,127 @@
+package com.pksa.order_service.journal;
+
+import com.pksa.order_service.dto.OrderDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderJournalTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 9, 30, 0, 654_321_000);
+    private static final OrderJournal.Position START = new OrderJournal.Position(0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEverythingAfterTheAppliedPositionInOrder() throws Exception {
+        List<OrderJournal.Entry> durable = new CopyOnWriteArrayList<>();
+        OrderJournal journal = OrderJournal.open(dir, 10 * 36, START, durable::addAll).journal();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> appends = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            OrderDto order = order(i);
+            appends.add(pool.submit(() -> {
+                journal.append(order);
+                return null;
+            }));
+        }
+        for (Future<?> append : appends) {
+            append.get();
+        }
+        pool.shutdown();
+        assertEquals(40, durable.size());
+
+        OrderJournal.Position applied = durable.get(24).end();
+        journal.release(applied);
+        journal.close();
+
+        List<OrderJournal.Entry> unapplied = OrderJournal.open(dir, 10 * 36, applied, entries -> { }).unapplied();
+        assertEquals(durable.subList(25, 40).stream().map(OrderJournal.Entry::order).toList(),
+                unapplied.stream().map(OrderJournal.Entry::order).toList());
+    }
+
+    @Test
+    void dropsATornRecordAtTheTail() throws Exception {
+        OrderJournal journal = OrderJournal.open(dir, 1 << 20, START, entries -> { }).journal();
+        journal.append(order(1));
+        journal.append(order(2));
+        journal.close();
+
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.filter(f -> f.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        OrderJournal.Opened reopened = OrderJournal.open(dir, 1 << 20, START, entries -> { });
+        assertEquals(List.of(order(1)), reopened.unapplied().stream().map(OrderJournal.Entry::order).toList());
+        reopened.journal().append(order(3));
+        reopened.journal().close();
+
+        List<OrderJournal.Entry> unapplied = OrderJournal.open(dir, 1 << 20, START, entries -> { }).unapplied();
+        assertEquals(List.of(1, 3), unapplied.stream().map(e -> e.order().getId()).toList());
+    }
+
+    @Test
+    void readsASealedSegmentOnlyUpToItsSealAndContinuesInANewOne() throws Exception {
+        OrderJournal journal = OrderJournal.open(dir, 1 << 20, START, entries -> { }).journal();
+        journal.append(order(1));
+        journal.append(order(2));
+        journal.close();
+        // What a failed fsync after the first record leaves behind
+        Files.writeString(dir.resolve(String.format("journal-%016d.sealed", 1)), "36");
+
+        OrderJournal.Opened reopened = OrderJournal.open(dir, 1 << 20, START, entries -> { });
+        assertEquals(List.of(order(1)), reopened.unapplied().stream().map(OrderJournal.Entry::order).toList());
+        reopened.journal().append(order(3));
+        reopened.journal().close();
+
+        List<OrderJournal.Entry> unapplied = OrderJournal.open(dir, 1 << 20, START, entries -> { }).unapplied();
+        assertEquals(List.of(1, 3), unapplied.stream().map(e -> e.order().getId()).toList());
+        assertEquals(2, unapplied.get(1).end().segment());
+    }
+
+    @Test
+    void keepsAcceptingAppendsWhenTheDurableCallbackFails() throws Exception {
+        List<OrderJournal.Entry> durable = new ArrayList<>();
+        OrderJournal journal = OrderJournal.open(dir, 1 << 20, START, entries -> {
+            if (entries.get(0).order().getId() == 1) {
+                throw new IllegalStateException("listener failed");
+            }
+            durable.addAll(entries);
+        }).journal();
+        journal.append(order(1));
+        journal.append(order(2));
+        journal.close();
+
+        assertEquals(List.of(order(2)), durable.stream().map(OrderJournal.Entry::order).toList());
+        List<OrderJournal.Entry> unapplied = OrderJournal.open(dir, 1 << 20, START, entries -> { }).unapplied();
+        assertEquals(List.of(1, 2), unapplied.stream().map(e -> e.order().getId()).toList());
+    }
+
+    @Test
+    void keepsTheJournalIdAcrossOpens() throws Exception {
+        String id = OrderJournal.id(dir.resolve("journal"));
+        assertEquals(id, OrderJournal.id(dir.resolve("journal")));
+    }
+
+    private static OrderDto order(int id) {
+        return new OrderDto(id, 40 + id % 3, 7, id % 4 == 0 ? null : id, BASE.plusSeconds(id), "NEW",
+                id % 5 == 0 ? null : 9.99 * id);
+    }
+}
@@ -0,0 +1,82 @@
+package com.pksa.order_service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowOrderMetricsTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final SlidingWindowOrderMetrics metrics = new SlidingWindowOrderMetrics(clock);
+
+    @Test
+    void estimatesDistinctCustomersWithinFewPercent() {
+        for (int i = 0; i < 50_000; i++) {
+            metrics.recordCreated(i % 10_000, 1, 1, "NEW");
+        }
+
+        long estimate = metrics.snapshot(1, 5).distinctCustomers();
+        assertEquals(10_000, estimate, 500);
+    }
+
+    @Test
+    void ranksHeavyProductsFirst() {
+        for (int i = 0; i < 2_000; i++) {
+            metrics.recordCreated(i, 1000 + i % 200, 1, "NEW");
+        }
+        metrics.recordCreated(1, 7, 500, "NEW");
+        metrics.recordCreated(2, 8, 300, "NEW");
+
+        SlidingWindowOrderMetrics.Snapshot snapshot = metrics.snapshot(1, 2);
+        assertEquals(7, snapshot.topProducts().get(0).productId());
+        assertEquals(8, snapshot.topProducts().get(1).productId());
+        assertTrue(snapshot.topProducts().get(0).quantity() >= 500);
+    }
+
+    @Test
+    void dropsMinutesThatLeaveTheWindow() {
+        metrics.recordCreated(1, 1, 1, "NEW");
+        clock.advance(Duration.ofMinutes(10));
+        metrics.recordCreated(2, 1, 1, "NEW");
+        metrics.recordStatusChange("SHIPPED");
+
+        assertEquals(1, metrics.snapshot(1, 5).created());
+        assertEquals(2, metrics.snapshot(15, 5).created());
+        assertEquals(1L, metrics.snapshot(15, 5).eventsByStatus().get("SHIPPED"));
+
+        clock.advance(Duration.ofMinutes(60));
+        assertEquals(0, metrics.snapshot(60, 5).created());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.config.WorkerThreads;
+import com.pksa.order_service.dto.OutboundMail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailDeliveryServiceTest {
+    private SmtpStub smtp;
+    private MailDeliveryService mailDelivery;
+
+    @BeforeEach
+    void startSmtp() throws IOException {
+        smtp = new SmtpStub();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        if (mailDelivery != null) {
+            mailDelivery.shutdown();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void reusesOneConnectionForQueuedMails() throws Exception {
+        mailDelivery = service(Duration.ofMillis(50));
+        mailDelivery.start();
+        List<Path> attachments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path attachment = attachment("report " + i);
+            attachments.add(attachment);
+            mailDelivery.enqueue(mail("user" + i + "@example.com", attachment, null));
+        }
+
+        await(() -> mailDelivery.stats().getSent() == 3);
+        assertEquals(1, smtp.connections.get());
+        assertEquals(1, mailDelivery.stats().getConnectionsOpened());
+        attachments.forEach(a -> assertFalse(Files.exists(a)));
+    }
+
+    @Test
+    void retriesTransientFailureWithBackoff() throws Exception {
+        smtp.failNextData.set(1);
+        mailDelivery = service(Duration.ofMillis(50));
+        mailDelivery.start();
+
+        mailDelivery.enqueue(mail("ops@example.com", attachment("report"), null));
+
+        await(() -> mailDelivery.stats().getSent() == 1);
+        assertEquals(1, mailDelivery.stats().getRetries());
+        assertEquals(0, mailDelivery.stats().getFailed());
+    }
+
+    @Test
+    void doesNotRetryPermanentRejection() throws Exception {
+        smtp.rejectNextData.set(1);
+        mailDelivery = service(Duration.ofMillis(50));
+        mailDelivery.start();
+
+        Path attachment = attachment("report");
+        mailDelivery.enqueue(mail("ops@example.com", attachment, null));
+
+        await(() -> mailDelivery.stats().getFailed() == 1);
+        assertEquals(0, mailDelivery.stats().getRetries());
+        assertEquals(0, mailDelivery.stats().getSent());
+        assertFalse(Files.exists(attachment));
+    }
+
+    @Test
+    void retriesOnlyRecipientsThatWereNotRejected() throws Exception {
+        smtp.rejectedRecipients.add("bad@example.com");
+        mailDelivery = service(Duration.ofMillis(50));
+        mailDelivery.enqueue(mail("a@example.com", attachment("report"), "weekly"));
+        mailDelivery.enqueue(mail("bad@example.com", attachment("report"), "weekly"));
+        mailDelivery.start();
+
+        await(() -> mailDelivery.stats().getSent() == 1);
+        assertEquals(1, mailDelivery.stats().getRetries());
+        assertEquals(List.of(List.of("a@example.com")), smtp.messages);
+    }
+
+    @Test
+    void batchesRecipientsOfTheSameReport() throws Exception {
+        mailDelivery = service(Duration.ofMillis(50));
+        String first = mailDelivery.enqueue(mail("a@example.com", attachment("report"), "weekly"));
+        String second = mailDelivery.enqueue(mail("b@example.com", attachment("report"), "weekly"));
+        mailDelivery.start();
+
+        await(() -> mailDelivery.stats().getSent() == 1);
+        assertEquals(first, second);
+        assertEquals(1, smtp.messages.size());
+        assertEquals(List.of("a@example.com", "b@example.com"), smtp.messages.get(0));
+        assertEquals(1, mailDelivery.stats().getBatchedRecipients());
+    }
+
+    private MailDeliveryService service(Duration backoff) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(smtp.port());
+        Properties properties = new Properties();
+        properties.put("mail.smtp.from", "reports@example.com");
+        sender.setJavaMailProperties(properties);
+        return new MailDeliveryService(sender, new SimpleMeterRegistry(), new WorkerThreads(false), 1, 10, 3, backoff, Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+
+    private OutboundMail mail(String to, Path attachment, String batchKey) {
+        return OutboundMail.builder()
+                .to(to)
+                .subject("Admin Report")
+                .body("Please find the requested report attached.")
+                .attachment(attachment)
+                .attachmentName("report.txt")
+                .batchKey(batchKey)
+                .build();
+    }
+
+    private Path attachment(String content) throws IOException {
+        Path file = Files.createTempFile("mail-test-", ".txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for delivery");
+            Thread.sleep(20);
+        }
+    }
+
+    /** Minimal in-process SMTP server that records the envelope recipients of each message. */
+    private static final class SmtpStub {
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger failNextData = new AtomicInteger();
+        final AtomicInteger rejectNextData = new AtomicInteger();
+        final Set<String> rejectedRecipients = ConcurrentHashMap.newKeySet();
+        final List<List<String>> messages = new CopyOnWriteArrayList<>();
+
+        SmtpStub() throws IOException {
+            Thread acceptor = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        connections.incrementAndGet();
+                        Thread session = new Thread(() -> serve(socket));
+                        session.setDaemon(true);
+                        session.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        void close() throws IOException {
+            server.close();
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 stub ESMTP");
+                List<String> recipients = new ArrayList<>();
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("RCPT TO:")) {
+                        String recipient = line.substring(8).replaceAll("[<>\\s]", "");
+                        if (rejectedRecipients.contains(recipient)) {
+                            reply(out, "550 No such user");
+                        } else {
+                            recipients.add(recipient);
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // message body is not inspected
+                        }
+                        if (failNextData.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            reply(out, "451 Try again later");
+                        } else if (rejectNextData.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            reply(out, "554 Message rejected");
+                        } else {
+                            messages.add(List.copyOf(recipients));
+                            reply(out, "250 Queued");
+                        }
+                        recipients.clear();
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else if (command.startsWith("RSET") || command.startsWith("MAIL FROM:")) {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
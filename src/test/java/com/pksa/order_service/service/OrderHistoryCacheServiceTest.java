@@ -0,0 +1,81 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.OrderDto;
+import com.pksa.order_service.event.OrderChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderHistoryCacheServiceTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final IntFunction<List<OrderDto>> loader = customerId -> {
+        loads.incrementAndGet();
+        return List.of(order(1, customerId, "NEW"), order(2, customerId, "NEW"));
+    };
+
+    @Test
+    void appliesCommittedWritesWithoutReloading() {
+        OrderHistoryCacheService cache = new OrderHistoryCacheService(null, true, 100, Duration.ofMinutes(1), false);
+        cache.get(7, loader);
+
+        cache.onOrderChanged(OrderChangedEvent.created(order(3, 7, "NEW")));
+        cache.onOrderChanged(OrderChangedEvent.statusUpdated(order(2, 7, "NEW"), order(2, 7, "SHIPPED")));
+        // A stale event delivered late must not move the status back
+        cache.onOrderChanged(OrderChangedEvent.statusUpdated(order(2, 7, "NEW"), order(2, 7, "NEW")));
+
+        List<OrderDto> history = cache.get(7, loader);
+        assertEquals(List.of(1, 2, 3), history.stream().map(OrderDto::getId).toList());
+        assertEquals("SHIPPED", history.get(1).getStatus());
+        assertEquals(1, loads.get());
+
+        cache.onOrderChanged(OrderChangedEvent.deleted(order(1, 7, "NEW")));
+        assertEquals(List.of(1, 2), cache.get(7, loader).stream().map(OrderDto::getId).toList());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedCustomersPastTheRowBound() {
+        OrderHistoryCacheService cache = new OrderHistoryCacheService(null, true, 4, Duration.ofMinutes(1), false);
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+        cache.get(3, loader);
+
+        assertEquals(3, loads.get());
+        cache.get(1, loader);
+        assertEquals(3, loads.get());
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().getEvictions());
+    }
+
+    @Test
+    void reloadsEntriesOlderThanTheTtlEvenAfterWriteThroughs() {
+        OrderHistoryCacheService cache = new OrderHistoryCacheService(null, true, 100, Duration.ZERO, false);
+        cache.get(7, loader);
+        cache.onOrderChanged(OrderChangedEvent.created(order(3, 7, "NEW")));
+
+        // The reload shows what the database holds, not what was applied in memory
+        assertEquals(List.of(1, 2), cache.get(7, loader).stream().map(OrderDto::getId).toList());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    private static OrderDto order(int id, int customerId, String status) {
+        return OrderDto.builder()
+                .id(id)
+                .productId(40)
+                .customerId(customerId)
+                .quantity(1)
+                .orderDate(LocalDateTime.of(2024, 5, 1, 10, 0).plusMinutes(id))
+                .status(status)
+                .unitPrice(12.5)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.pksa.order_service.service;
+
+import com.pksa.order_service.dto.ProductDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogClientTest {
+    private HttpServer stub;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicBoolean down = new AtomicBoolean();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/products/", exchange -> {
+            requests.incrementAndGet();
+            String id = exchange.getRequestURI().getPath().substring("/products/".length());
+            int status;
+            byte[] body;
+            if (down.get()) {
+                status = 503;
+                body = new byte[0];
+            } else if (id.equals("404")) {
+                status = 404;
+                body = new byte[0];
+            } else {
+                status = 200;
+                body = ("{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"price\":9.5}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                sleep(50);
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void cachesProductAfterFirstLookup() {
+        ProductCatalogClient client = client(Duration.ofMinutes(5), Duration.ZERO);
+
+        assertEquals("Product 7", client.getProduct(7).getName());
+        assertEquals("Product 7", client.getProduct(7).getName());
+
+        assertEquals(1, requests.get());
+        assertEquals(1, client.stats().getHits());
+    }
+
+    @Test
+    void coalescesConcurrentMisses() {
+        ProductCatalogClient client = client(Duration.ofMinutes(5), Duration.ZERO);
+
+        List<CompletableFuture<ProductDto>> lookups = IntStream.range(0, 20)
+                .mapToObj(i -> client.getProductAsync(3))
+                .toList();
+        lookups.forEach(f -> assertEquals(3, f.join().getId()));
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void servesStaleEntryWhenProductServiceIsDown() throws Exception {
+        ProductCatalogClient client = client(Duration.ofMillis(100), Duration.ofMinutes(1));
+        client.getProduct(5);
+
+        Thread.sleep(150);
+        down.set(true);
+
+        assertEquals("Product 5", client.getProduct(5).getName());
+        assertEquals(1, client.stats().getStaleServed());
+    }
+
+    @Test
+    void returnsNullForUnknownProduct() {
+        ProductCatalogClient client = client(Duration.ofMinutes(5), Duration.ZERO);
+
+        assertNull(client.getProduct(404));
+    }
+
+    private ProductCatalogClient client(Duration ttl, Duration staleWindow) {
+        String baseUrl = "http://localhost:" + stub.getAddress().getPort();
+        return new ProductCatalogClient(WebClient.builder(), baseUrl, ttl, staleWindow, 1.0, 100,
+                Duration.ofSeconds(2), 5, Duration.ofSeconds(30));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pksa.order_service.support;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedDataSourceTest {
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final BoundedDataSource dataSource = new BoundedDataSource(target(), 2, Duration.ofMillis(50));
+
+    @Test
+    void failsWithATransientErrorOnceTheWaitTimesOut() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(2, dataSource.getActive());
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        second.close();
+        assertEquals(0, dataSource.getActive());
+    }
+
+    @Test
+    void returnsThePermitWhenTheTargetFails() {
+        failing.set(true);
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(0, dataSource.getActive());
+    }
+
+    @Test
+    void closingTwiceReturnsOnePermit() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.getActive());
+        assertEquals(2, closed.get());
+        second.close();
+        assertEquals(0, dataSource.getActive());
+    }
+
+    private DataSource target() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] {DataSource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (failing.get()) {
+                        throw new SQLException("connection refused");
+                    }
+                    return connection();
+                });
+    }
+
+    private Connection connection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closed.incrementAndGet();
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.pksa.order_service.support;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingDocxWriterTest {
+
+    @Test
+    void producesDocumentThatPoiCanRead() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingDocxWriter writer = new StreamingDocxWriter(out)) {
+            writer.paragraph("ADMIN ORDERS REPORT", true, 18);
+            writer.paragraph("Period: <start> & <end>");
+            writer.startTable("Order ID", "Status");
+            for (int i = 0; i < 1_000; i++) {
+                writer.row(String.valueOf(i), "NEW");
+            }
+            writer.finish();
+        }
+
+        try (XWPFDocument document = new XWPFDocument(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("ADMIN ORDERS REPORT", document.getParagraphs().get(0).getText());
+            assertTrue(document.getParagraphs().get(0).getRuns().get(0).isBold());
+            assertEquals("Period: <start> & <end>", document.getParagraphs().get(1).getText());
+
+            XWPFTable table = document.getTables().get(0);
+            assertEquals(1_001, table.getNumberOfRows());
+            assertEquals("Order ID", table.getRow(0).getCell(0).getText());
+            assertEquals("999", table.getRow(1_000).getCell(0).getText());
+        }
+    }
+
+    @Test
+    void closingWithoutFinishLeavesPackageIncomplete() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingDocxWriter writer = new StreamingDocxWriter(out)) {
+            writer.paragraph("ADMIN ORDERS REPORT", true, 18);
+            writer.startTable("Order ID", "Status");
+            writer.row("1", "NEW");
+        }
+
+        assertThrows(Exception.class, () -> new XWPFDocument(new ByteArrayInputStream(out.toByteArray())).close());
+    }
+}